@@ -0,0 +1,199 @@
+package sunyu.util.benchmark;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.MultiPoint;
+import org.locationtech.jts.io.ParseException;
+import org.openjdk.jmh.annotations.*;
+import sunyu.util.JtsUtil;
+import sunyu.util.concaveHull.CancellationToken;
+import sunyu.util.concaveHull.ConcaveHullIndexed;
+import sunyu.util.concaveHull.ConcaveHullJTS;
+import sunyu.util.concaveHull.GridDecimator;
+import sunyu.util.concaveHull.IncrementalConcaveHull;
+import sunyu.util.concaveHull.TriCheckerAlpha;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 凹壳计算基准测试，分别测试三角剖分、挖掘和polygonFarm整体耗时
+ *
+ * @author 孙宇
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcaveHullBenchmark {
+    @Param({"multipoint1.txt", "multipoint2.txt", "multipoint3.txt", "multipoint4.txt", "multipoint6.txt", "multipoint7.txt", "multipoint8.txt", "multipoint9.txt"})
+    public String fixture;
+
+    private JtsUtil jtsUtil;
+    private JtsUtil jtsUtilSweepHull;
+    private JtsUtil jtsUtilCellDecimation;
+    private JtsUtil jtsUtilBoundaryDecimation;
+    private JtsUtil jtsUtilTiled;
+    private JtsUtil jtsUtilCached;
+    private JtsUtil jtsUtilOverlayUnion;
+    private IncrementalConcaveHull farmHull;
+    private MultiPoint multiPoint;
+    private ConcaveHullJTS concaveHull;
+    private ConcaveHullIndexed concaveHullIndexed;
+    private ConcaveHullIndexed concaveHullDelaunator;
+    private TriCheckerAlpha checkerAlpha;
+
+    @Setup
+    public void setup() {
+        jtsUtil = JtsUtil.builder().build();
+        jtsUtilSweepHull = JtsUtil.builder().setSweepHullTriangulation(true).build();
+        jtsUtilCellDecimation = JtsUtil.builder().setDecimation(GridDecimator.Mode.CELL).build();
+        jtsUtilBoundaryDecimation = JtsUtil.builder().setDecimation(GridDecimator.Mode.BOUNDARY).build();
+        jtsUtilTiled = JtsUtil.builder().setFarmTilePoints(5000).build();
+        jtsUtilCached = JtsUtil.builder().setFarmCacheSize(16).build();
+        multiPoint = Fixtures.multiPoint(fixture);
+        concaveHull = new ConcaveHullJTS(multiPoint);
+        concaveHullIndexed = new ConcaveHullIndexed(concaveHull);
+        concaveHullDelaunator = ConcaveHullIndexed.delaunator(multiPoint);
+        checkerAlpha = new TriCheckerAlpha(0.0001);
+        jtsUtilOverlayUnion = JtsUtil.builder().setFarmUnion(JtsUtil.FarmUnion.OVERLAY_NG).build();
+        //凹壳只计算一次，farmUnion*只测合并多边形和管道的耗时
+        farmHull = jtsUtil.incrementalPolygonFarm(0.0);
+        farmHull.add(multiPoint);
+        farmHull.getConcaveHull();
+        System.out.println(fixture + " 凹壳" + farmHull.getConcaveHull().size() + "块 顶点数 buffer(0)：" + vertices(jtsUtil.polygonFarm(farmHull))
+                + " OverlayNG：" + vertices(jtsUtilOverlayUnion.polygonFarm(farmHull)));
+    }
+
+    private int vertices(String[] result) {
+        if (result[0] == null) {
+            return 0;
+        }
+        try {
+            return jtsUtil.parseWkt(result[0]).getNumPoints();
+        } catch (ParseException e) {
+            throw new IllegalStateException("轮廓解析失败：" + fixture, e);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        jtsUtil.close();
+        jtsUtilSweepHull.close();
+        jtsUtilCellDecimation.close();
+        jtsUtilBoundaryDecimation.close();
+        jtsUtilTiled.close();
+        jtsUtilCached.close();
+        jtsUtilOverlayUnion.close();
+    }
+
+    @Benchmark
+    public ConcaveHullJTS triangulation() {
+        return new ConcaveHullJTS(multiPoint);
+    }
+
+    @Benchmark
+    public Collection<Geometry> getConcaveHullBFS() {
+        return concaveHull.getConcaveHullBFS(checkerAlpha, true, false, 60);
+    }
+
+    @Benchmark
+    public ConcaveHullIndexed triangulationIndexed() {
+        return new ConcaveHullIndexed(multiPoint);
+    }
+
+    @Benchmark
+    public Collection<Geometry> getConcaveHullBFSIndexed() {
+        return concaveHullIndexed.getConcaveHullBFS(checkerAlpha, true, false, 60);
+    }
+
+    @Benchmark
+    public ConcaveHullIndexed triangulationDelaunator() {
+        return ConcaveHullIndexed.delaunator(multiPoint);
+    }
+
+    @Benchmark
+    public Collection<Geometry> getConcaveHullBFSDelaunator() {
+        return concaveHullDelaunator.getConcaveHullBFS(checkerAlpha, true, false, 60);
+    }
+
+    @Benchmark
+    public Collection<Geometry> getConcaveHullBFSParallel() {
+        return concaveHullDelaunator.getConcaveHullBFS(checkerAlpha, false, CancellationToken.none(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 增量凹壳：除最后一批外的点已计算过，每次调用前重建
+     */
+    @State(Scope.Thread)
+    public static class IncrementalState {
+        private static final int BATCH = 3000;
+        private IncrementalConcaveHull hull;
+        private Coordinate[] lastBatch;
+
+        @Setup(Level.Invocation)
+        public void setup(ConcaveHullBenchmark benchmark) {
+            Coordinate[] coordinates = benchmark.multiPoint.getCoordinates();
+            int split = Math.max(0, coordinates.length - BATCH);
+            hull = new IncrementalConcaveHull(benchmark.checkerAlpha, true, benchmark.multiPoint.getFactory());
+            hull.add(Arrays.copyOfRange(coordinates, 0, split));
+            hull.getConcaveHull();
+            lastBatch = Arrays.copyOfRange(coordinates, split, coordinates.length);
+        }
+    }
+
+    @Benchmark
+    public Collection<Geometry> incrementalConcaveHull(IncrementalState state) {
+        state.hull.add(state.lastBatch);
+        return state.hull.getConcaveHull();
+    }
+
+    @Benchmark
+    public String[] polygonFarm() {
+        return jtsUtil.polygonFarm(multiPoint, 0.0, 60);
+    }
+
+    @Benchmark
+    public String[] polygonFarmSweepHull() {
+        return jtsUtilSweepHull.polygonFarm(multiPoint, 0.0, 60);
+    }
+
+    @Benchmark
+    public Geometry decimateCell() {
+        return GridDecimator.decimate(multiPoint, checkerAlpha, 0.25, GridDecimator.Mode.CELL);
+    }
+
+    @Benchmark
+    public String[] polygonFarmCellDecimation() {
+        return jtsUtilCellDecimation.polygonFarm(multiPoint, 0.0, 60);
+    }
+
+    @Benchmark
+    public String[] polygonFarmBoundaryDecimation() {
+        return jtsUtilBoundaryDecimation.polygonFarm(multiPoint, 0.0, 60);
+    }
+
+    @Benchmark
+    public String[] polygonFarmTiled() {
+        return jtsUtilTiled.polygonFarm(multiPoint, 0.0, 60);
+    }
+
+    @Benchmark
+    public String[] polygonFarmCached() {
+        return jtsUtilCached.polygonFarm(multiPoint, 0.0, 60);
+    }
+
+    @Benchmark
+    public String[] farmUnionBuffer() {
+        return jtsUtil.polygonFarm(farmHull);
+    }
+
+    @Benchmark
+    public String[] farmUnionOverlayNG() {
+        return jtsUtilOverlayUnion.polygonFarm(farmHull);
+    }
+}
@@ -0,0 +1,163 @@
+package sunyu.util.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import sunyu.util.CoordTransformUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CoordTransformUtil各坐标系转换基准测试，坐标取自multipoint1.txt
+ *
+ * @author 孙宇
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CoordTransformUtilBenchmark {
+    private CoordTransformUtil coordTransformUtil;
+    private CoordTransformUtil gridCoordTransformUtil;//偏移量网格插值模式，范围覆盖测试数据
+    private double[] lats;
+    private double[] lons;
+    private double[] outLats;
+    private double[] outLons;
+    private List<double[]> points;
+    private double[] trackLats;//100万个点的长轨迹，由multipoint1.txt平移拼接
+    private double[] trackLons;
+    private double[] trackOutLats;
+    private double[] trackOutLons;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        coordTransformUtil = CoordTransformUtil.builder().build();
+        gridCoordTransformUtil = CoordTransformUtil.builder().setDeltaGrid(0.01, 34, 101, 37, 105).build();
+        double[][] latLons = Fixtures.latLons(Fixtures.multiPoint("multipoint1.txt"));
+        lats = latLons[0];
+        lons = latLons[1];
+        outLats = new double[lats.length];
+        outLons = new double[lons.length];
+        points = new ArrayList<>();
+        for (int i = 0; i < lats.length; i++) {
+            points.add(new double[]{lats[i], lons[i]});
+        }
+        int n = 1000000;
+        trackLats = new double[n];
+        trackLons = new double[n];
+        trackOutLats = new double[n];
+        trackOutLons = new double[n];
+        for (int i = 0; i < n; i++) {
+            int round = i / lats.length;
+            trackLats[i] = lats[i % lats.length] + round * 0.001;
+            trackLons[i] = lons[i % lons.length] + round * 0.001;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        coordTransformUtil.close();
+        gridCoordTransformUtil.close();
+    }
+
+    private int next() {
+        if (++cursor == lats.length) {
+            cursor = 0;
+        }
+        return cursor;
+    }
+
+    @Benchmark
+    public double[] wgs2GCJ() {
+        int i = next();
+        return coordTransformUtil.wgs2GCJ(lats[i], lons[i]);
+    }
+
+    @Benchmark
+    public double[] gcj2WGS() {
+        int i = next();
+        return coordTransformUtil.gcj2WGS(lats[i], lons[i]);
+    }
+
+    @Benchmark
+    public double[] gcj2WGSExactly() {
+        int i = next();
+        return coordTransformUtil.gcj2WGSExactly(lats[i], lons[i]);
+    }
+
+    @Benchmark
+    public double[] gcj2WGSNewton() {
+        int i = next();
+        return coordTransformUtil.gcj2WGSNewton(lats[i], lons[i]);
+    }
+
+    @Benchmark
+    public double[] gcj2BD09() {
+        int i = next();
+        return coordTransformUtil.gcj2BD09(lats[i], lons[i]);
+    }
+
+    @Benchmark
+    public double[] bd092GCJ() {
+        int i = next();
+        return coordTransformUtil.bd092GCJ(lats[i], lons[i]);
+    }
+
+    @Benchmark
+    public double[] wgs2BD09() {
+        int i = next();
+        return coordTransformUtil.wgs2BD09(lats[i], lons[i]);
+    }
+
+    @Benchmark
+    public double[] bd092WGS() {
+        int i = next();
+        return coordTransformUtil.bd092WGS(lats[i], lons[i]);
+    }
+
+    /**
+     * 整条轨迹List转换，与下面的数组批量转换对比，耗时为整条轨迹
+     */
+    @Benchmark
+    public List<double[]> wgs2GCJList() {
+        return coordTransformUtil.wgs2GCJList(points);
+    }
+
+    @Benchmark
+    public double[] wgs2GCJArray() {
+        coordTransformUtil.wgs2GCJ(lats, lons, outLats, outLons, 0, lats.length);
+        return outLats;
+    }
+
+    @Benchmark
+    public List<double[]> wgs2BD09List() {
+        return coordTransformUtil.wgs2BD09List(points);
+    }
+
+    @Benchmark
+    public double[] wgs2BD09Array() {
+        coordTransformUtil.wgs2BD09(lats, lons, outLats, outLons, 0, lats.length);
+        return outLats;
+    }
+
+    @Benchmark
+    public double[] wgs2GCJTrack() {
+        coordTransformUtil.wgs2GCJ(trackLats, trackLons, trackOutLats, trackOutLons, 0, trackLats.length);
+        return trackOutLats;
+    }
+
+    @Benchmark
+    public double[] wgs2GCJTrackParallel() {
+        coordTransformUtil.wgs2GCJParallel(trackLats, trackLons, trackOutLats, trackOutLons, 0, trackLats.length);
+        return trackOutLats;
+    }
+
+    @Benchmark
+    public double[] wgs2GCJTrackGrid() {
+        gridCoordTransformUtil.wgs2GCJ(trackLats, trackLons, trackOutLats, trackOutLons, 0, trackLats.length);
+        return trackOutLats;
+    }
+}
@@ -0,0 +1,82 @@
+package sunyu.util.benchmark;
+
+import cn.hutool.core.io.resource.ResourceUtil;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.MultiPoint;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+import java.util.Random;
+
+/**
+ * 基准测试数据，复用主工程src/test/resources下的multipoint*.txt和polygon.txt
+ *
+ * @author 孙宇
+ */
+final class Fixtures {
+    private Fixtures() {
+    }
+
+    /**
+     * 读取WKT资源文件
+     *
+     * @param name 资源文件名
+     * @return 几何图形
+     */
+    static Geometry read(String name) {
+        try {
+            return new WKTReader().read(ResourceUtil.readUtf8Str(name));
+        } catch (ParseException e) {
+            throw new IllegalStateException("测试数据解析失败：" + name, e);
+        }
+    }
+
+    /**
+     * 读取离散点资源文件
+     *
+     * @param name 资源文件名，例如multipoint1.txt
+     * @return 离散点集
+     */
+    static MultiPoint multiPoint(String name) {
+        return (MultiPoint) read(name);
+    }
+
+    /**
+     * 在几何图形外包矩形(四周各扩大10%)内生成固定种子的随机点
+     *
+     * @param geometry 几何图形
+     * @param n        点数量
+     * @return [经度数组, 纬度数组]
+     */
+    static double[][] randomPoints(Geometry geometry, int n) {
+        Envelope envelope = new Envelope(geometry.getEnvelopeInternal());
+        envelope.expandBy(envelope.getWidth() * 0.1, envelope.getHeight() * 0.1);
+        Random random = new Random(20240101);
+        double[] lons = new double[n];
+        double[] lats = new double[n];
+        for (int i = 0; i < n; i++) {
+            lons[i] = envelope.getMinX() + random.nextDouble() * envelope.getWidth();
+            lats[i] = envelope.getMinY() + random.nextDouble() * envelope.getHeight();
+        }
+        return new double[][]{lons, lats};
+    }
+
+    /**
+     * 离散点集的坐标，纬度在前，与CoordTransformUtil的参数顺序一致
+     *
+     * @param multiPoint 离散点集
+     * @return [纬度数组, 经度数组]
+     */
+    static double[][] latLons(MultiPoint multiPoint) {
+        Coordinate[] coordinates = multiPoint.getCoordinates();
+        double[] lats = new double[coordinates.length];
+        double[] lons = new double[coordinates.length];
+        for (int i = 0; i < coordinates.length; i++) {
+            lats[i] = coordinates[i].y;
+            lons[i] = coordinates[i].x;
+        }
+        return new double[][]{lats, lons};
+    }
+}
@@ -0,0 +1,123 @@
+package sunyu.util.benchmark;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.MultiPoint;
+import org.locationtech.jts.io.ParseException;
+import org.openjdk.jmh.annotations.*;
+import sunyu.util.JtsUtil;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WKT、WKB、TWKB读写基准测试
+ * <p>
+ * 各格式的字节数在Setup时打印
+ *
+ * @author 孙宇
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeometryIoBenchmark {
+    private static final int WKT_LIST_SIZE = 256;
+
+    @Param({"hull", "multipoint"})
+    public String shape;
+
+    private JtsUtil jtsUtil;
+    private Geometry geometry;
+    private String wkt;
+    private byte[] wkb;
+    private byte[] twkb;
+    private ByteBuffer buffer;
+    private List<String> wktList;//WKT_LIST_SIZE个相同的WKT
+
+    @Setup
+    public void setup() throws Exception {
+        jtsUtil = JtsUtil.builder().build();
+        MultiPoint multiPoint = Fixtures.multiPoint("multipoint1.txt");
+        geometry = multiPoint;
+        if ("hull".equals(shape)) {//multipoint1.txt计算出的地块轮廓
+            Geometry polygon = jtsUtil.polygon(multiPoint);
+            geometry = polygon != null ? polygon : multiPoint.convexHull();
+        }
+        wkt = geometry.toText();
+        wkb = jtsUtil.toWkb(geometry);
+        twkb = jtsUtil.toTwkb(geometry, 7);
+        buffer = ByteBuffer.allocate(wkb.length * 2);
+        wktList = Collections.nCopies(WKT_LIST_SIZE, wkt);
+        System.out.println(shape + " WKT：" + wkt.length() + "字节 WKB：" + wkb.length + "字节 TWKB：" + twkb.length + "字节");
+    }
+
+    @TearDown
+    public void tearDown() {
+        jtsUtil.close();
+    }
+
+    @Benchmark
+    public String writeWkt() {
+        return geometry.toText();
+    }
+
+    @Benchmark
+    public Geometry readWkt() throws ParseException {
+        return jtsUtil.parseWkt(wkt);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WKT_LIST_SIZE)
+    public List<Geometry> readWktList() throws ParseException {
+        List<Geometry> geometries = new ArrayList<>(WKT_LIST_SIZE);
+        for (String s : wktList) {
+            geometries.add(jtsUtil.parseWkt(s));
+        }
+        return geometries;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WKT_LIST_SIZE)
+    public List<Geometry> readWktListParallel() throws ParseException {
+        return jtsUtil.parseWkt(wktList);
+    }
+
+    @Benchmark
+    public byte[] writeWkb() {
+        return jtsUtil.toWkb(geometry);
+    }
+
+    @Benchmark
+    public ByteBuffer writeWkbBuffer() {
+        buffer.clear();
+        jtsUtil.toWkb(geometry, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public Geometry readWkb() throws ParseException {
+        return jtsUtil.parseWkb(wkb);
+    }
+
+    @Benchmark
+    public byte[] writeTwkb() {
+        return jtsUtil.toTwkb(geometry, 7);
+    }
+
+    @Benchmark
+    public ByteBuffer writeTwkbBuffer() {
+        buffer.clear();
+        jtsUtil.toTwkb(geometry, 7, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public Geometry readTwkb() throws ParseException {
+        return jtsUtil.parseTwkb(twkb);
+    }
+}
@@ -0,0 +1,208 @@
+package sunyu.util.benchmark;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.MultiPoint;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.io.ParseException;
+import org.openjdk.jmh.annotations.*;
+import sunyu.util.JtsUtil;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JtsUtil电子围栏、距离和面积计算基准测试
+ *
+ * @author 孙宇
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JtsUtilBenchmark {
+    private static final int POINTS = 4096;//随机点数量，2的幂
+    private static final double CENTER_LON = 116.302247;
+    private static final double CENTER_LAT = 40.05797;
+    private static final double RADIUS = 427.25225281516754;
+
+    private JtsUtil jtsUtil;
+    private JtsUtil circleUtil;//只注册圆形围栏，不影响findContainingFences
+    private Geometry polygon;//polygon.txt
+    private Geometry multiPolygon;//2000个带洞的多边形
+    private Geometry fence;//multipoint1.txt计算出的地块轮廓
+    private Geometry circle;//1024个顶点的圆形多边形
+    private Point[] circlePoints;
+    private Point[] points;
+    private double[] lons;
+    private double[] lats;
+    private double[] circleLons;
+    private double[] circleLats;
+    private JtsUtil.CircleFence circleFence;
+    private boolean[] inResult;
+    private double[] distanceResult;
+    private int cursor;
+    private String googleStr;
+    private StringBuilder sb;
+
+    @Setup
+    public void setup() throws Exception {
+        jtsUtil = JtsUtil.builder().build();
+        polygon = Fixtures.read("polygon.txt");
+        MultiPoint multiPoint = Fixtures.multiPoint("multipoint1.txt");
+        fence = jtsUtil.polygon(multiPoint);
+        if (fence == null) {
+            fence = multiPoint.convexHull();
+        }
+        jtsUtil.addFence("fence", fence);
+        double[][] random = Fixtures.randomPoints(fence, POINTS);
+        lons = random[0];
+        lats = random[1];
+        GeometryFactory geometryFactory = fence.getFactory();
+        points = new Point[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            points[i] = geometryFactory.createPoint(new Coordinate(lons[i], lats[i]));
+        }
+        //圆心附近±0.01度的随机点
+        circleLons = new double[POINTS];
+        circleLats = new double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            circleLons[i] = CENTER_LON - 0.01 + 0.02 * ((i * 7919) % POINTS) / POINTS;
+            circleLats[i] = CENTER_LAT - 0.01 + 0.02 * ((i * 104729) % POINTS) / POINTS;
+        }
+        circleFence = jtsUtil.circleFence(CENTER_LON, CENTER_LAT, RADIUS);
+        circle = geometryFactory.createPoint(new Coordinate(CENTER_LON, CENTER_LAT)).buffer(0.01, 256);
+        circleUtil = JtsUtil.builder().build();
+        circleUtil.addFence("circle", circle);
+        circlePoints = new Point[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            circlePoints[i] = geometryFactory.createPoint(new Coordinate(circleLons[i], circleLats[i]));
+        }
+        inResult = new boolean[POINTS];
+        distanceResult = new double[POINTS];
+        Random polygonRandom = new Random(2);
+        Polygon[] polygons = new Polygon[2000];
+        for (int i = 0; i < polygons.length; i++) {
+            double lon = 116 + polygonRandom.nextDouble(), lat = 40 + polygonRandom.nextDouble();
+            Geometry shell = geometryFactory.createPoint(new Coordinate(lon, lat)).buffer(0.001 + polygonRandom.nextDouble() * 0.001, 4 + polygonRandom.nextInt(64));
+            Geometry hole = geometryFactory.createPoint(new Coordinate(lon, lat)).buffer(0.0005, 8);
+            polygons[i] = (Polygon) shell.difference(hole);
+        }
+        multiPolygon = geometryFactory.createMultiPolygon(polygons);
+        googleStr = jtsUtil.wktToGoogleStr((Polygon) fence);
+        sb = new StringBuilder(googleStr.length() * 2);
+    }
+
+    @TearDown
+    public void tearDown() {
+        jtsUtil.close();
+        circleUtil.close();
+    }
+
+    private int next() {
+        return cursor = (cursor + 1) & (POINTS - 1);
+    }
+
+    @Benchmark
+    public double geometryArea() throws ParseException {
+        return jtsUtil.geometryArea(polygon);
+    }
+
+    @Benchmark
+    public double geometryAreaMultiPolygon() throws ParseException {
+        return jtsUtil.geometryArea(multiPolygon);
+    }
+
+    @Benchmark
+    public double geometryAreaParallel() throws ParseException {
+        return jtsUtil.geometryAreaParallel(multiPolygon);
+    }
+
+    @Benchmark
+    public boolean inGeometry() {
+        return jtsUtil.inGeometry(points[next()], fence);
+    }
+
+    @Benchmark
+    public boolean inGeometryFence() {
+        int i = next();
+        return jtsUtil.inGeometry(lons[i], lats[i], "fence");
+    }
+
+    @Benchmark
+    public boolean inGeometryCircle() {
+        return circleUtil.inGeometry(circlePoints[next()], circle);
+    }
+
+    @Benchmark
+    public boolean inGeometryCircleFence() {
+        int i = next();
+        return circleUtil.inGeometry(circleLons[i], circleLats[i], "circle");
+    }
+
+    @Benchmark
+    public List<String> findContainingFences() {
+        int i = next();
+        return jtsUtil.findContainingFences(lons[i], lats[i]);
+    }
+
+    @Benchmark
+    public boolean inCircle() {
+        int i = next();
+        return jtsUtil.inCircle(circleLons[i], circleLats[i], CENTER_LON, CENTER_LAT, RADIUS);
+    }
+
+    @Benchmark
+    public boolean inCircleFence() {
+        int i = next();
+        return jtsUtil.inCircle(circleLons[i], circleLats[i], circleFence);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public int inCircleBatch() {
+        return jtsUtil.inCircle(circleLons, circleLats, 0, POINTS, circleFence, inResult);
+    }
+
+    @Benchmark
+    public double pointDistance() {
+        int i = next();
+        return jtsUtil.pointDistance(circleLons[i], circleLats[i], CENTER_LON, CENTER_LAT);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public double[] pointDistanceBatch() {
+        jtsUtil.pointDistance(circleLons, circleLats, 0, POINTS, CENTER_LON, CENTER_LAT, distanceResult);
+        return distanceResult;
+    }
+
+    @Benchmark
+    public String wktToGoogleStr() {
+        return jtsUtil.wktToGoogleStr((Polygon) fence);
+    }
+
+    @Benchmark
+    public StringBuilder wktToGoogleStrStreaming() {
+        sb.setLength(0);
+        jtsUtil.wktToGoogleStr((Polygon) fence, 6, sb);
+        return sb;
+    }
+
+    @Benchmark
+    public String googleStrToWkt() {
+        return jtsUtil.googleStrToWkt(googleStr);
+    }
+
+    @Benchmark
+    public StringBuilder googleStrToWktStreaming() {
+        sb.setLength(0);
+        jtsUtil.googleStrToWkt(googleStr, sb);
+        return sb;
+    }
+}
@@ -5,6 +5,9 @@ import cn.hutool.log.LogFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
 
 /**
  * 坐标转换工具类
@@ -31,24 +34,159 @@ public class CoordTransformUtil implements AutoCloseable {
 
     private CoordTransformUtil(Config config) {
         log.info("[构建CoordTransformUtil] 开始");
-        log.info("[构建CoordTransformUtil] 结束");
         this.config = config;
+        if (config.deltaGridArgs != null) {
+            double[] args = config.deltaGridArgs;
+            log.info("[构建CoordTransformUtil] 预计算偏移量网格 步长：{} 范围：[{},{}]-[{},{}]", args[0], args[1], args[2], args[3], args[4]);
+            config.deltaGrid = new DeltaGrid(args[0], args[1], args[2], args[3], args[4]);
+        }
+        log.info("[构建CoordTransformUtil] 结束");
     }
 
     private static class Config {
         private final double AXIS = 6378245.0;
         private final double OFFSET = 0.00669342162296594323; // (a^2 - b^2) / a^2
         private final double X_PI = Math.PI * 3000.0 / 180.0;
+        private final double EXACTLY_THRESHOLD = 0.000000001;//精确转换的默认误差，与gcj2WGSExactly一致
+        private final int NEWTON_MAX_ITERATIONS = 20;//牛顿迭代最大次数，正常2~3次即可收敛
+        private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();//并行批量转换使用的线程池
+        private int parallelThreshold = 8192;//点数不超过该值时不再拆分，直接在当前线程转换
+        private double[] deltaGridArgs = null;//偏移量网格参数[步长, 最小纬度, 最小经度, 最大纬度, 最大经度]，为null时不启用
+        private DeltaGrid deltaGrid = null;//预计算的GCJ02偏移量网格
     }
 
     public static class Builder {
         private final Config config = new Config();
 
+        /**
+         * 设置并行批量转换使用的线程池，默认为ForkJoinPool.commonPool()
+         * <p>
+         * 线程池由调用方管理，close时不会关闭
+         *
+         * @param forkJoinPool 线程池
+         * @return Builder
+         */
+        public Builder setForkJoinPool(ForkJoinPool forkJoinPool) {
+            config.forkJoinPool = forkJoinPool;
+            return this;
+        }
+
+        /**
+         * 设置并行批量转换的拆分阈值，默认为8192
+         *
+         * @param parallelThreshold 点数不超过该值时不再拆分
+         * @return Builder
+         */
+        public Builder setParallelThreshold(int parallelThreshold) {
+            config.parallelThreshold = Math.max(1, parallelThreshold);
+            return this;
+        }
+
+        /**
+         * 启用偏移量网格插值模式，范围为整个中国(outOfChina的外包矩形)
+         *
+         * @param step 网格步长(度)
+         * @return Builder
+         * @see #setDeltaGrid(double, double, double, double, double)
+         */
+        public Builder setDeltaGrid(double step) {
+            return setDeltaGrid(step, 0.8293, 72.004, 55.8271, 137.8347);
+        }
+
+        /**
+         * 启用偏移量网格插值模式
+         * <p>
+         * 构建时按步长预计算网格节点上的GCJ02偏移量(float存储)，之后WGS84与GCJ02互转(gcj2WGSNewton除外)都改为双线性插值，
+         * 网格范围外的点仍按公式计算
+         * <p>
+         * 插值误差约为 0.01 × step² 度，实测最大误差：
+         * <p>
+         * step=0.05 纬度1.4e-5度 经度2.4e-5度(约2.7米)，整个中国约12MB内存
+         * <p>
+         * step=0.02 纬度2.3e-6度 经度4.0e-6度(约0.45米)，整个中国约72MB内存
+         * <p>
+         * step=0.01 纬度5.8e-7度 经度1.0e-6度(约0.11米)，整个中国约290MB内存
+         * <p>
+         * 只处理某个省份的数据时可以缩小范围以减少内存
+         *
+         * @param step   网格步长(度)
+         * @param minLat 最小纬度
+         * @param minLon 最小经度
+         * @param maxLat 最大纬度
+         * @param maxLon 最大经度
+         * @return Builder
+         */
+        public Builder setDeltaGrid(double step, double minLat, double minLon, double maxLat, double maxLon) {
+            if (!(step > 0) || !(maxLat > minLat) || !(maxLon > minLon)) {
+                throw new IllegalArgumentException("偏移量网格参数错误");
+            }
+            config.deltaGridArgs = new double[]{step, minLat, minLon, maxLat, maxLon};
+            return this;
+        }
+
         public CoordTransformUtil build() {
             return new CoordTransformUtil(config);
         }
     }
 
+    /**
+     * GCJ02偏移量网格，节点值按行(纬度)优先存储
+     */
+    private class DeltaGrid {
+        private final double step;
+        private final double minLat;
+        private final double minLon;
+        private final int rows;
+        private final int cols;
+        private final float[] dLat;
+        private final float[] dLon;
+
+        private DeltaGrid(double step, double minLat, double minLon, double maxLat, double maxLon) {
+            this.step = step;
+            this.minLat = minLat;
+            this.minLon = minLon;
+            this.rows = (int) Math.ceil((maxLat - minLat) / step) + 1;
+            this.cols = (int) Math.ceil((maxLon - minLon) / step) + 1;
+            if ((long) rows * cols > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("偏移量网格过大，请增大步长或缩小范围");
+            }
+            this.dLat = new float[rows * cols];
+            this.dLon = new float[rows * cols];
+            //按行并行计算
+            config.forkJoinPool.submit(() -> IntStream.range(0, rows).parallel().forEach(r -> {
+                double lat = minLat + r * step;
+                for (int c = 0; c < cols; c++) {
+                    double[] d = deltaExactly(lat, minLon + c * step);
+                    dLat[r * cols + c] = (float) d[0];
+                    dLon[r * cols + c] = (float) d[1];
+                }
+            })).join();
+        }
+
+        /**
+         * 点是否在网格范围内
+         */
+        private boolean covers(double lat, double lon) {
+            double fy = (lat - minLat) / step;
+            double fx = (lon - minLon) / step;
+            return fy >= 0 && fx >= 0 && fy <= rows - 1 && fx <= cols - 1;
+        }
+
+        /**
+         * 双线性插值，调用前需确认点在网格范围内
+         */
+        private double interpolate(float[] values, double lat, double lon) {
+            double fy = (lat - minLat) / step;
+            double fx = (lon - minLon) / step;
+            int r = Math.min((int) fy, rows - 2);
+            int c = Math.min((int) fx, cols - 2);
+            double ty = fy - r;
+            double tx = fx - c;
+            int k = r * cols + c;
+            return (1 - ty) * ((1 - tx) * values[k] + tx * values[k + 1]) + ty * ((1 - tx) * values[k + cols] + tx * values[k + cols + 1]);
+        }
+    }
+
     /**
      * 回收资源
      */
@@ -59,6 +197,14 @@ public class CoordTransformUtil implements AutoCloseable {
     }
 
     private double[] delta(double lat, double lon) {
+        DeltaGrid grid = config.deltaGrid;
+        if (grid != null && grid.covers(lat, lon)) {
+            return new double[]{grid.interpolate(grid.dLat, lat, lon), grid.interpolate(grid.dLon, lat, lon)};
+        }
+        return deltaExactly(lat, lon);
+    }
+
+    private double[] deltaExactly(double lat, double lon) {
         double[] latlng = new double[2];
         double dLat = transformLat(lon - 105.0, lat - 35.0);
         double dLon = transformLon(lon - 105.0, lat - 35.0);
@@ -73,6 +219,38 @@ public class CoordTransformUtil implements AutoCloseable {
         return latlng;
     }
 
+    /**
+     * 批量加上(sign=1)或减去(sign=-1)GCJ02偏移量，计算过程与delta一致(包括网格插值模式)，国外的点原样输出
+     */
+    private void shift(double[] lat, double[] lon, double[] outLat, double[] outLon, int off, int len, double sign) {
+        DeltaGrid grid = config.deltaGrid;
+        for (int i = off, end = off + len; i < end; i++) {
+            double la = lat[i];
+            double lo = lon[i];
+            if (outOfChina(la, lo)) {
+                outLat[i] = la;
+                outLon[i] = lo;
+                continue;
+            }
+            double dLat, dLon;
+            if (grid != null && grid.covers(la, lo)) {
+                dLat = grid.interpolate(grid.dLat, la, lo);
+                dLon = grid.interpolate(grid.dLon, la, lo);
+            } else {
+                dLat = transformLat(lo - 105.0, la - 35.0);
+                dLon = transformLon(lo - 105.0, la - 35.0);
+                double radLat = la / 180.0 * Math.PI;
+                double magic = Math.sin(radLat);
+                magic = 1 - config.OFFSET * magic * magic;
+                double sqrtMagic = Math.sqrt(magic);
+                dLat = (dLat * 180.0) / ((config.AXIS * (1 - config.OFFSET)) / (magic * sqrtMagic) * Math.PI);
+                dLon = (dLon * 180.0) / (config.AXIS / sqrtMagic * Math.cos(radLat) * Math.PI);
+            }
+            outLat[i] = la + sign * dLat;
+            outLon[i] = lo + sign * dLon;
+        }
+    }
+
     /**
      * 是否在中国外
      *
@@ -146,6 +324,57 @@ public class CoordTransformUtil implements AutoCloseable {
         return result;
     }
 
+    /**
+     * 批量转换数组内的点 GCJ-02 -> BD09 火星坐标系 -> 百度坐标系
+     * <p>
+     * 结果与逐点转换一致，转换过程不创建对象；输出数组可以与输入数组相同
+     *
+     * @param lat    纬度数组
+     * @param lon    经度数组
+     * @param outLat 转换后的纬度
+     * @param outLon 转换后的经度
+     * @param off    起始下标
+     * @param len    点数量
+     */
+    public void gcj2BD09(double[] lat, double[] lon, double[] outLat, double[] outLon, int off, int len) {
+        for (int i = off, end = off + len; i < end; i++) {
+            double x = lon[i];
+            double y = lat[i];
+            double z = Math.sqrt(x * x + y * y) + 0.00002 * Math.sin(y * config.X_PI);
+            double theta = Math.atan2(y, x) + 0.000003 * Math.cos(x * config.X_PI);
+            outLat[i] = z * Math.sin(theta) + 0.006;
+            outLon[i] = z * Math.cos(theta) + 0.0065;
+        }
+    }
+
+    /**
+     * 批量转换数组内的点 GCJ-02 -> BD09 火星坐标系 -> 百度坐标系，转换结果直接写回原数组
+     *
+     * @param lat 纬度数组
+     * @param lon 经度数组
+     * @param off 起始下标
+     * @param len 点数量
+     */
+    public void gcj2BD09(double[] lat, double[] lon, int off, int len) {
+        gcj2BD09(lat, lon, lat, lon, off, len);
+    }
+
+    /**
+     * 并行批量转换数组内的点 GCJ-02 -> BD09 火星坐标系 -> 百度坐标系
+     * <p>
+     * 点数超过并行阈值时拆分到ForkJoinPool中执行，结果与单线程批量转换一致；输出数组可以与输入数组相同
+     *
+     * @param lat    纬度数组
+     * @param lon    经度数组
+     * @param outLat 转换后的纬度
+     * @param outLon 转换后的经度
+     * @param off    起始下标
+     * @param len    点数量
+     */
+    public void gcj2BD09Parallel(double[] lat, double[] lon, double[] outLat, double[] outLon, int off, int len) {
+        parallel(this::gcj2BD09, lat, lon, outLat, outLon, off, len);
+    }
+
     /**
      * BD09 -> GCJ-02 百度坐标系 -> 火星坐标系
      *
@@ -188,6 +417,57 @@ public class CoordTransformUtil implements AutoCloseable {
         return result;
     }
 
+    /**
+     * 批量转换数组内的点 BD09 -> GCJ-02 百度坐标系 -> 火星坐标系
+     * <p>
+     * 结果与逐点转换一致，转换过程不创建对象；输出数组可以与输入数组相同
+     *
+     * @param lat    纬度数组
+     * @param lon    经度数组
+     * @param outLat 转换后的纬度
+     * @param outLon 转换后的经度
+     * @param off    起始下标
+     * @param len    点数量
+     */
+    public void bd092GCJ(double[] lat, double[] lon, double[] outLat, double[] outLon, int off, int len) {
+        for (int i = off, end = off + len; i < end; i++) {
+            double x = lon[i] - 0.0065;
+            double y = lat[i] - 0.006;
+            double z = Math.sqrt(x * x + y * y) - 0.00002 * Math.sin(y * config.X_PI);
+            double theta = Math.atan2(y, x) - 0.000003 * Math.cos(x * config.X_PI);
+            outLat[i] = z * Math.sin(theta);
+            outLon[i] = z * Math.cos(theta);
+        }
+    }
+
+    /**
+     * 批量转换数组内的点 BD09 -> GCJ-02 百度坐标系 -> 火星坐标系，转换结果直接写回原数组
+     *
+     * @param lat 纬度数组
+     * @param lon 经度数组
+     * @param off 起始下标
+     * @param len 点数量
+     */
+    public void bd092GCJ(double[] lat, double[] lon, int off, int len) {
+        bd092GCJ(lat, lon, lat, lon, off, len);
+    }
+
+    /**
+     * 并行批量转换数组内的点 BD09 -> GCJ-02 百度坐标系 -> 火星坐标系
+     * <p>
+     * 点数超过并行阈值时拆分到ForkJoinPool中执行，结果与单线程批量转换一致；输出数组可以与输入数组相同
+     *
+     * @param lat    纬度数组
+     * @param lon    经度数组
+     * @param outLat 转换后的纬度
+     * @param outLon 转换后的经度
+     * @param off    起始下标
+     * @param len    点数量
+     */
+    public void bd092GCJParallel(double[] lat, double[] lon, double[] outLat, double[] outLon, int off, int len) {
+        parallel(this::bd092GCJ, lat, lon, outLat, outLon, off, len);
+    }
+
     /**
      * BD09 -> WGS84 百度坐标系 -> 地球坐标系
      *
@@ -224,6 +504,51 @@ public class CoordTransformUtil implements AutoCloseable {
         return result;
     }
 
+    /**
+     * 批量转换数组内的点 BD09 -> WGS84 百度坐标系 -> 地球坐标系
+     * <p>
+     * 结果与逐点转换一致，转换过程不创建对象；输出数组可以与输入数组相同
+     *
+     * @param lat    纬度数组
+     * @param lon    经度数组
+     * @param outLat 转换后的纬度
+     * @param outLon 转换后的经度
+     * @param off    起始下标
+     * @param len    点数量
+     */
+    public void bd092WGS(double[] lat, double[] lon, double[] outLat, double[] outLon, int off, int len) {
+        bd092GCJ(lat, lon, outLat, outLon, off, len);
+        gcj2WGS(outLat, outLon, outLat, outLon, off, len);
+    }
+
+    /**
+     * 批量转换数组内的点 BD09 -> WGS84 百度坐标系 -> 地球坐标系，转换结果直接写回原数组
+     *
+     * @param lat 纬度数组
+     * @param lon 经度数组
+     * @param off 起始下标
+     * @param len 点数量
+     */
+    public void bd092WGS(double[] lat, double[] lon, int off, int len) {
+        bd092WGS(lat, lon, lat, lon, off, len);
+    }
+
+    /**
+     * 并行批量转换数组内的点 BD09 -> WGS84 百度坐标系 -> 地球坐标系
+     * <p>
+     * 点数超过并行阈值时拆分到ForkJoinPool中执行，结果与单线程批量转换一致；输出数组可以与输入数组相同
+     *
+     * @param lat    纬度数组
+     * @param lon    经度数组
+     * @param outLat 转换后的纬度
+     * @param outLon 转换后的经度
+     * @param off    起始下标
+     * @param len    点数量
+     */
+    public void bd092WGSParallel(double[] lat, double[] lon, double[] outLat, double[] outLon, int off, int len) {
+        parallel(this::bd092WGS, lat, lon, outLat, outLon, off, len);
+    }
+
     /**
      * WGS84 -> BD09 地球坐标系 -> 百度坐标系
      *
@@ -260,6 +585,51 @@ public class CoordTransformUtil implements AutoCloseable {
         return result;
     }
 
+    /**
+     * 批量转换数组内的点 WGS84 -> BD09 地球坐标系 -> 百度坐标系
+     * <p>
+     * 结果与逐点转换一致，转换过程不创建对象；输出数组可以与输入数组相同
+     *
+     * @param lat    纬度数组
+     * @param lon    经度数组
+     * @param outLat 转换后的纬度
+     * @param outLon 转换后的经度
+     * @param off    起始下标
+     * @param len    点数量
+     */
+    public void wgs2BD09(double[] lat, double[] lon, double[] outLat, double[] outLon, int off, int len) {
+        wgs2GCJ(lat, lon, outLat, outLon, off, len);
+        gcj2BD09(outLat, outLon, outLat, outLon, off, len);
+    }
+
+    /**
+     * 批量转换数组内的点 WGS84 -> BD09 地球坐标系 -> 百度坐标系，转换结果直接写回原数组
+     *
+     * @param lat 纬度数组
+     * @param lon 经度数组
+     * @param off 起始下标
+     * @param len 点数量
+     */
+    public void wgs2BD09(double[] lat, double[] lon, int off, int len) {
+        wgs2BD09(lat, lon, lat, lon, off, len);
+    }
+
+    /**
+     * 并行批量转换数组内的点 WGS84 -> BD09 地球坐标系 -> 百度坐标系
+     * <p>
+     * 点数超过并行阈值时拆分到ForkJoinPool中执行，结果与单线程批量转换一致；输出数组可以与输入数组相同
+     *
+     * @param lat    纬度数组
+     * @param lon    经度数组
+     * @param outLat 转换后的纬度
+     * @param outLon 转换后的经度
+     * @param off    起始下标
+     * @param len    点数量
+     */
+    public void wgs2BD09Parallel(double[] lat, double[] lon, double[] outLat, double[] outLon, int off, int len) {
+        parallel(this::wgs2BD09, lat, lon, outLat, outLon, off, len);
+    }
+
     /**
      * WGS84 -> GCJ02 地球坐标系 -> 火星坐标系
      *
@@ -304,6 +674,50 @@ public class CoordTransformUtil implements AutoCloseable {
         return result;
     }
 
+    /**
+     * 批量转换数组内的点 WGS84 -> GCJ02 地球坐标系 -> 火星坐标系
+     * <p>
+     * 结果与逐点转换一致，转换过程不创建对象；输出数组可以与输入数组相同
+     *
+     * @param lat    纬度数组
+     * @param lon    经度数组
+     * @param outLat 转换后的纬度
+     * @param outLon 转换后的经度
+     * @param off    起始下标
+     * @param len    点数量
+     */
+    public void wgs2GCJ(double[] lat, double[] lon, double[] outLat, double[] outLon, int off, int len) {
+        shift(lat, lon, outLat, outLon, off, len, 1.0);
+    }
+
+    /**
+     * 批量转换数组内的点 WGS84 -> GCJ02 地球坐标系 -> 火星坐标系，转换结果直接写回原数组
+     *
+     * @param lat 纬度数组
+     * @param lon 经度数组
+     * @param off 起始下标
+     * @param len 点数量
+     */
+    public void wgs2GCJ(double[] lat, double[] lon, int off, int len) {
+        wgs2GCJ(lat, lon, lat, lon, off, len);
+    }
+
+    /**
+     * 并行批量转换数组内的点 WGS84 -> GCJ02 地球坐标系 -> 火星坐标系
+     * <p>
+     * 点数超过并行阈值时拆分到ForkJoinPool中执行，结果与单线程批量转换一致；输出数组可以与输入数组相同
+     *
+     * @param lat    纬度数组
+     * @param lon    经度数组
+     * @param outLat 转换后的纬度
+     * @param outLon 转换后的经度
+     * @param off    起始下标
+     * @param len    点数量
+     */
+    public void wgs2GCJParallel(double[] lat, double[] lon, double[] outLat, double[] outLon, int off, int len) {
+        parallel(this::wgs2GCJ, lat, lon, outLat, outLon, off, len);
+    }
+
     /**
      * GCJ02 -> WGS84 火星坐标系 -> 地球坐标系(粗略)
      *
@@ -348,6 +762,50 @@ public class CoordTransformUtil implements AutoCloseable {
         return result;
     }
 
+    /**
+     * 批量转换数组内的点 GCJ02 -> WGS84 火星坐标系 -> 地球坐标系(粗略)
+     * <p>
+     * 结果与逐点转换一致，转换过程不创建对象；输出数组可以与输入数组相同
+     *
+     * @param lat    纬度数组
+     * @param lon    经度数组
+     * @param outLat 转换后的纬度
+     * @param outLon 转换后的经度
+     * @param off    起始下标
+     * @param len    点数量
+     */
+    public void gcj2WGS(double[] lat, double[] lon, double[] outLat, double[] outLon, int off, int len) {
+        shift(lat, lon, outLat, outLon, off, len, -1.0);
+    }
+
+    /**
+     * 批量转换数组内的点 GCJ02 -> WGS84 火星坐标系 -> 地球坐标系(粗略)，转换结果直接写回原数组
+     *
+     * @param lat 纬度数组
+     * @param lon 经度数组
+     * @param off 起始下标
+     * @param len 点数量
+     */
+    public void gcj2WGS(double[] lat, double[] lon, int off, int len) {
+        gcj2WGS(lat, lon, lat, lon, off, len);
+    }
+
+    /**
+     * 并行批量转换数组内的点 GCJ02 -> WGS84 火星坐标系 -> 地球坐标系(粗略)
+     * <p>
+     * 点数超过并行阈值时拆分到ForkJoinPool中执行，结果与单线程批量转换一致；输出数组可以与输入数组相同
+     *
+     * @param lat    纬度数组
+     * @param lon    经度数组
+     * @param outLat 转换后的纬度
+     * @param outLon 转换后的经度
+     * @param off    起始下标
+     * @param len    点数量
+     */
+    public void gcj2WGSParallel(double[] lat, double[] lon, double[] outLat, double[] outLon, int off, int len) {
+        parallel(this::gcj2WGS, lat, lon, outLat, outLon, off, len);
+    }
+
     /**
      * GCJ02 -> WGS84 火星坐标系 -> 地球坐标系（精确）
      *
@@ -413,4 +871,278 @@ public class CoordTransformUtil implements AutoCloseable {
         return result;
     }
 
-}
\ No newline at end of file
+    /**
+     * 批量转换数组内的点 GCJ02 -> WGS84 火星坐标系 -> 地球坐标系（精确）
+     * <p>
+     * 结果与逐点转换一致，内部逐点二分迭代；输出数组可以与输入数组相同
+     *
+     * @param lat    纬度数组
+     * @param lon    经度数组
+     * @param outLat 转换后的纬度
+     * @param outLon 转换后的经度
+     * @param off    起始下标
+     * @param len    点数量
+     */
+    public void gcj2WGSExactly(double[] lat, double[] lon, double[] outLat, double[] outLon, int off, int len) {
+        for (int i = off, end = off + len; i < end; i++) {
+            double[] latlon = gcj2WGSExactly(lat[i], lon[i]);
+            outLat[i] = latlon[0];
+            outLon[i] = latlon[1];
+        }
+    }
+
+    /**
+     * 批量转换数组内的点 GCJ02 -> WGS84 火星坐标系 -> 地球坐标系（精确），转换结果直接写回原数组
+     *
+     * @param lat 纬度数组
+     * @param lon 经度数组
+     * @param off 起始下标
+     * @param len 点数量
+     */
+    public void gcj2WGSExactly(double[] lat, double[] lon, int off, int len) {
+        gcj2WGSExactly(lat, lon, lat, lon, off, len);
+    }
+
+    /**
+     * 并行批量转换数组内的点 GCJ02 -> WGS84 火星坐标系 -> 地球坐标系（精确）
+     * <p>
+     * 点数超过并行阈值时拆分到ForkJoinPool中执行，结果与单线程批量转换一致；输出数组可以与输入数组相同
+     *
+     * @param lat    纬度数组
+     * @param lon    经度数组
+     * @param outLat 转换后的纬度
+     * @param outLon 转换后的经度
+     * @param off    起始下标
+     * @param len    点数量
+     */
+    public void gcj2WGSExactlyParallel(double[] lat, double[] lon, double[] outLat, double[] outLon, int off, int len) {
+        parallel(this::gcj2WGSExactly, lat, lon, outLat, outLon, off, len);
+    }
+
+    /**
+     * GCJ02 -> WGS84 火星坐标系 -> 地球坐标系（精确，牛顿迭代）
+     * <p>
+     * 与gcj2WGSExactly的误差标准一致，使用偏移量的解析雅可比矩阵迭代，通常2~3次收敛，远快于二分法
+     *
+     * @param lat 纬度
+     * @param lon 经度
+     * @return latLon ( 纬度在前 )
+     */
+    public double[] gcj2WGSNewton(double lat, double lon) {
+        return gcj2WGSNewton(lat, lon, config.EXACTLY_THRESHOLD);
+    }
+
+    /**
+     * GCJ02 -> WGS84 火星坐标系 -> 地球坐标系（精确，牛顿迭代）
+     *
+     * @param lat       纬度
+     * @param lon       经度
+     * @param tolerance 允许误差(度)，反算回GCJ02后经纬度与输入之差都小于该值时结束迭代
+     * @return latLon ( 纬度在前 )
+     */
+    public double[] gcj2WGSNewton(double lat, double lon, double tolerance) {
+        double[] latlon = new double[2];
+        newton(lat, lon, tolerance, latlon, 0, latlon, 1);
+        return latlon;
+    }
+
+    /**
+     * GCJ02 -> WGS84 火星坐标系 -> 地球坐标系（精确，牛顿迭代）
+     *
+     * @param latAndLon [纬度，经度]
+     * @return latLon ( 纬度在前 )
+     */
+    public double[] gcj2WGSNewton(double[] latAndLon) {
+        return gcj2WGSNewton(latAndLon[0], latAndLon[1]);
+    }
+
+    /**
+     * 转换整个集合内的点 GCJ02 -> WGS84 火星坐标系 -> 地球坐标系（精确，牛顿迭代）
+     *
+     * @param points List<[纬度，经度]>
+     * @return List<latLon ( 纬度在前 )>
+     */
+    public List<double[]> gcj2WGSNewtonList(List<double[]> points) {
+        ArrayList<double[]> result = new ArrayList<>();
+        for (double[] point : points) {
+            result.add(gcj2WGSNewton(point));
+        }
+        return result;
+    }
+
+    /**
+     * 批量转换数组内的点 GCJ02 -> WGS84 火星坐标系 -> 地球坐标系（精确，牛顿迭代）
+     * <p>
+     * 转换过程不创建对象；输出数组可以与输入数组相同
+     *
+     * @param lat       纬度数组
+     * @param lon       经度数组
+     * @param outLat    转换后的纬度
+     * @param outLon    转换后的经度
+     * @param off       起始下标
+     * @param len       点数量
+     * @param tolerance 允许误差(度)
+     */
+    public void gcj2WGSNewton(double[] lat, double[] lon, double[] outLat, double[] outLon, int off, int len, double tolerance) {
+        for (int i = off, end = off + len; i < end; i++) {
+            newton(lat[i], lon[i], tolerance, outLat, i, outLon, i);
+        }
+    }
+
+    /**
+     * 批量转换数组内的点 GCJ02 -> WGS84 火星坐标系 -> 地球坐标系（精确，牛顿迭代），转换结果直接写回原数组
+     *
+     * @param lat 纬度数组
+     * @param lon 经度数组
+     * @param off 起始下标
+     * @param len 点数量
+     */
+    public void gcj2WGSNewton(double[] lat, double[] lon, int off, int len) {
+        gcj2WGSNewton(lat, lon, lat, lon, off, len, config.EXACTLY_THRESHOLD);
+    }
+
+    /**
+     * 并行批量转换数组内的点 GCJ02 -> WGS84 火星坐标系 -> 地球坐标系（精确，牛顿迭代）
+     *
+     * @param lat       纬度数组
+     * @param lon       经度数组
+     * @param outLat    转换后的纬度
+     * @param outLon    转换后的经度
+     * @param off       起始下标
+     * @param len       点数量
+     * @param tolerance 允许误差(度)
+     */
+    public void gcj2WGSNewtonParallel(double[] lat, double[] lon, double[] outLat, double[] outLon, int off, int len, double tolerance) {
+        parallel((la, lo, outLa, outLo, o, l) -> gcj2WGSNewton(la, lo, outLa, outLo, o, l, tolerance), lat, lon, outLat, outLon, off, len);
+    }
+
+    /**
+     * 数组批量转换
+     */
+    private interface BulkConverter {
+        void convert(double[] lat, double[] lon, double[] outLat, double[] outLon, int off, int len);
+    }
+
+    /**
+     * 二分拆分数组区间，直到点数不超过并行阈值
+     */
+    private static class BulkConvertTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final BulkConverter converter;
+        private final double[] lat, lon, outLat, outLon;
+        private final int off, len, threshold;
+
+        private BulkConvertTask(BulkConverter converter, double[] lat, double[] lon, double[] outLat, double[] outLon, int off, int len, int threshold) {
+            this.converter = converter;
+            this.lat = lat;
+            this.lon = lon;
+            this.outLat = outLat;
+            this.outLon = outLon;
+            this.off = off;
+            this.len = len;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (len <= threshold) {
+                converter.convert(lat, lon, outLat, outLon, off, len);
+                return;
+            }
+            int half = len >>> 1;
+            invokeAll(new BulkConvertTask(converter, lat, lon, outLat, outLon, off, half, threshold),
+                    new BulkConvertTask(converter, lat, lon, outLat, outLon, off + half, len - half, threshold));
+        }
+    }
+
+    private void parallel(BulkConverter converter, double[] lat, double[] lon, double[] outLat, double[] outLon, int off, int len) {
+        if (len <= config.parallelThreshold) {
+            converter.convert(lat, lon, outLat, outLon, off, len);
+            return;
+        }
+        config.forkJoinPool.invoke(new BulkConvertTask(converter, lat, lon, outLat, outLon, off, len, config.parallelThreshold));
+    }
+
+    /**
+     * 牛顿迭代求解 wgs + delta(wgs) = gcj
+     * <p>
+     * 残差的计算方式与wgs2GCJ的公式模式完全一致(网格插值模式下也按公式计算)，雅可比矩阵由transformLat、transformLon及比例系数对经纬度求导得到
+     */
+    private void newton(double lat, double lon, double tolerance, double[] outLat, int latIdx, double[] outLon, int lonIdx) {
+        double wgsLat = lat, wgsLon = lon;
+        for (int i = 0; i < config.NEWTON_MAX_ITERATIONS; i++) {
+            if (outOfChina(wgsLat, wgsLon)) {//国外不偏移，wgs2GCJ为恒等变换
+                if (Math.abs(wgsLat - lat) < tolerance && Math.abs(wgsLon - lon) < tolerance) {
+                    break;
+                }
+                wgsLat = lat;
+                wgsLon = lon;
+                continue;
+            }
+            double x = wgsLon - 105.0, y = wgsLat - 35.0;
+            double tLat = transformLat(x, y);
+            double tLon = transformLon(x, y);
+            double radLat = wgsLat / 180.0 * Math.PI;
+            double sin = Math.sin(radLat);
+            double magic = 1 - config.OFFSET * sin * sin;
+            double sqrtMagic = Math.sqrt(magic);
+            double cos = Math.cos(radLat);
+            double dLat = (tLat * 180.0) / ((config.AXIS * (1 - config.OFFSET)) / (magic * sqrtMagic) * Math.PI);
+            double dLon = (tLon * 180.0) / (config.AXIS / sqrtMagic * cos * Math.PI);
+            double fLat = (wgsLat + dLat) - lat;
+            double fLon = (wgsLon + dLon) - lon;
+            if (Math.abs(fLat) < tolerance && Math.abs(fLon) < tolerance) {
+                break;
+            }
+            //dLat = tLat * kLat，dLon = tLon * kLon，kLat、kLon只与纬度有关
+            double kLat = 180.0 * magic * sqrtMagic / (config.AXIS * (1 - config.OFFSET) * Math.PI);
+            double kLon = 180.0 * sqrtMagic / (config.AXIS * cos * Math.PI);
+            double dMagic = -config.OFFSET * 2 * sin * cos * Math.PI / 180.0;//magic对纬度(度)的导数
+            double dkLat = kLat * 1.5 * dMagic / magic;
+            double dkLon = kLon * (0.5 * dMagic / magic + sin / cos * Math.PI / 180.0);
+            double a11 = 1 + transformLatDy(x, y) * kLat + tLat * dkLat;
+            double a12 = transformLatDx(x, y) * kLat;
+            double a21 = transformLonDy(x) * kLon + tLon * dkLon;
+            double a22 = 1 + transformLonDx(x, y) * kLon;
+            double det = a11 * a22 - a12 * a21;
+            wgsLat -= (a22 * fLat - a12 * fLon) / det;
+            wgsLon -= (a11 * fLon - a21 * fLat) / det;
+        }
+        outLat[latIdx] = wgsLat;
+        outLon[lonIdx] = wgsLon;
+    }
+
+    /**
+     * sqrt(|x|)的导数，x为0时导数不存在，按0处理(只影响迭代步长，不影响收敛判断)
+     */
+    private double sqrtAbsDx(double x) {
+        double abs = Math.abs(x);
+        return abs < 1e-12 ? 0 : Math.signum(x) * 0.5 / Math.sqrt(abs);
+    }
+
+    private double transformLatDx(double x, double y) {
+        double ret = 2.0 + 0.1 * y + 0.2 * sqrtAbsDx(x);
+        ret += (120.0 * Math.PI * Math.cos(6.0 * x * Math.PI) + 40.0 * Math.PI * Math.cos(2.0 * x * Math.PI)) * 2.0 / 3.0;
+        return ret;
+    }
+
+    private double transformLatDy(double x, double y) {
+        double ret = 3.0 + 0.4 * y + 0.1 * x;
+        ret += (20.0 * Math.PI * Math.cos(y * Math.PI) + 40.0 / 3.0 * Math.PI * Math.cos(y / 3.0 * Math.PI)) * 2.0 / 3.0;
+        ret += (160.0 / 12.0 * Math.PI * Math.cos(y / 12.0 * Math.PI) + 320.0 / 30.0 * Math.PI * Math.cos(y * Math.PI / 30.0)) * 2.0 / 3.0;
+        return ret;
+    }
+
+    private double transformLonDx(double x, double y) {
+        double ret = 1.0 + 0.2 * x + 0.1 * y + 0.1 * sqrtAbsDx(x);
+        ret += (120.0 * Math.PI * Math.cos(6.0 * x * Math.PI) + 40.0 * Math.PI * Math.cos(2.0 * x * Math.PI)) * 2.0 / 3.0;
+        ret += (20.0 * Math.PI * Math.cos(x * Math.PI) + 40.0 / 3.0 * Math.PI * Math.cos(x / 3.0 * Math.PI)) * 2.0 / 3.0;
+        ret += (150.0 / 12.0 * Math.PI * Math.cos(x / 12.0 * Math.PI) + 300.0 / 30.0 * Math.PI * Math.cos(x / 30.0 * Math.PI)) * 2.0 / 3.0;
+        return ret;
+    }
+
+    private double transformLonDy(double x) {
+        return 2.0 + 0.1 * x;
+    }
+
+}
@@ -0,0 +1,113 @@
+package sunyu.util;
+
+import org.locationtech.jts.geom.CoordinateSequence;
+
+/**
+ * WGS84坐标高斯投影(6度带宽)
+ * <p>
+ * 椭球常量只计算一次，投影带中央经线按带号缓存；坐标序列一次性投影到double[]缓冲区，不创建Coordinate对象，也不修改原图形
+ * <p>
+ * 非线程安全，内部缓冲区会复用，每个线程使用自己的实例
+ *
+ * @author 孙宇
+ */
+public final class GaussProjector {
+    private static final double I_PI = 0.0174532925199433;//3.1415926535898/180.0
+    private static final int ZONE_WIDE = 6;//6度带宽
+    private static final double AXIS = 6378137.0;
+    private static final double F = 1.0 / 298.257223563;//WGS84
+    private static final double E2 = 2 * F - F * F;
+    private static final double EE = E2 * (1.0 - E2);
+    private static final double M0 = 1 - E2 / 4 - 3 * E2 * E2 / 64 - 5 * E2 * E2 * E2 / 256;
+    private static final double M2 = 3 * E2 / 8 + 3 * E2 * E2 / 32 + 45 * E2 * E2 * E2 / 1024;
+    private static final double M4 = 15 * E2 * E2 / 256 + 45 * E2 * E2 * E2 / 1024;
+    private static final double M6 = 35 * E2 * E2 * E2 / 3072;
+
+    private int projNo = Integer.MIN_VALUE;//上一个点的投影带号
+    private double longitude0;//中央经线(弧度)
+    private double x0;//东偏
+    private double[] buffer = new double[256];
+
+    /**
+     * 将坐标序列投影为高斯坐标，按[x0, y0, x1, y1, ……]写入out
+     *
+     * @param sequence 坐标序列(经度，纬度)
+     * @param out      输出，长度不小于2*sequence.size()
+     * @return 点数
+     */
+    public int project(CoordinateSequence sequence, double[] out) {
+        int size = sequence.size();
+        for (int i = 0; i < size; i++) {
+            project(sequence.getX(i), sequence.getY(i), out, i << 1);
+        }
+        return size;
+    }
+
+    /**
+     * 将一个点投影为高斯坐标，写入out[off]、out[off + 1]
+     *
+     * @param longitude 经度
+     * @param latitude  纬度
+     * @param out       输出
+     * @param off       写入位置
+     */
+    public void project(double longitude, double latitude, double[] out, int off) {
+        int no = (int) (longitude / ZONE_WIDE);
+        if (no != projNo) {
+            projNo = no;
+            longitude0 = (no * ZONE_WIDE + ZONE_WIDE / 2) * I_PI;
+            x0 = 1000000L * (no + 1) + 500000L;
+        }
+        double longitude1 = longitude * I_PI; //经度转换为弧度
+        double latitude1 = latitude * I_PI; //纬度转换为弧度
+        double sin = Math.sin(latitude1);
+        double cos = Math.cos(latitude1);
+        double tan = Math.tan(latitude1);
+        double NN = AXIS / Math.sqrt(1.0 - E2 * sin * sin);
+        double T = tan * tan;
+        double C = EE * cos * cos;
+        double A = (longitude1 - longitude0) * cos;
+        double M = AXIS * (M0 * latitude1 - M2 * Math.sin(2 * latitude1) + M4 * Math.sin(4 * latitude1) - M6 * Math.sin(6 * latitude1));
+        double xval = NN * (A + (1 - T + C) * A * A * A / 6 + (5 - 18 * T + T * T + 72 * C - 58 * EE) * A * A * A * A * A / 120);
+        double yval = M + NN * tan * (A * A / 2 + (5 - T + 9 * C + 4 * C * C) * A * A * A * A / 24 + (61 - 58 * T + T * T + 600 * C - 330 * EE) * A * A * A * A * A * A / 720);
+        out[off] = xval + x0;
+        out[off + 1] = yval;
+    }
+
+    /**
+     * 环投影后的面积(平方米)，鞋带公式，与Area.ofRing计算顺序一致
+     *
+     * @param ring 闭合的坐标序列(经度，纬度)
+     * @return 面积，始终为正数
+     */
+    public double ringArea(CoordinateSequence ring) {
+        int size = ring.size();
+        if (buffer.length < size << 1) {
+            buffer = new double[Math.max(size << 1, buffer.length << 1)];
+        }
+        project(ring, buffer);
+        return Math.abs(ringAreaSigned(buffer, size));
+    }
+
+    /**
+     * 高斯坐标缓冲区的有向面积，与Area.ofRingSigned相同
+     *
+     * @param xy   [x0, y0, x1, y1, ……]
+     * @param size 点数
+     * @return 有向面积
+     */
+    public static double ringAreaSigned(double[] xy, int size) {
+        if (size < 3) {
+            return 0.0;
+        }
+        double sum = 0.0;
+        double x0 = xy[0];
+        for (int i = 1; i < size - 1; i++) {
+            double x = xy[i << 1] - x0;
+            double y1 = xy[(i + 1) << 1 | 1];
+            double y2 = xy[(i - 1) << 1 | 1];
+            sum += x * (y2 - y1);
+        }
+        return sum / 2.0;
+    }
+}
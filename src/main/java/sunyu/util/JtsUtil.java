@@ -1,21 +1,55 @@
 package sunyu.util;
 
 import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.thread.ThreadUtil;
 import cn.hutool.log.Log;
 import cn.hutool.log.LogFactory;
-import org.locationtech.jts.algorithm.Area;
+import org.locationtech.jts.algorithm.locate.IndexedPointInAreaLocator;
 import org.locationtech.jts.geom.*;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
 import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.locationtech.jts.io.WKBWriter;
 import org.locationtech.jts.io.WKTReader;
 import org.locationtech.jts.operation.buffer.BufferOp;
-import sunyu.util.concaveHull.ConcaveHullJTS;
+import org.locationtech.jts.operation.overlayng.OverlayNG;
+import org.locationtech.jts.operation.overlayng.OverlayNGRobust;
+import org.locationtech.jts.operation.overlayng.CoverageUnion;
+import sunyu.util.concaveHull.CancellationToken;
+import sunyu.util.concaveHull.ConcaveHullIndexed;
+import sunyu.util.concaveHull.GridDecimator;
+import sunyu.util.concaveHull.IncrementalConcaveHull;
+import sunyu.util.concaveHull.TiledConcaveHull;
 import sunyu.util.concaveHull.TriCheckerAlpha;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * JTS工具类
@@ -62,14 +96,335 @@ public class JtsUtil implements AutoCloseable {
 
     private static class Config {
         private final String POLYGON = "Polygon";
+        private final long[] POW10 = {1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L, 10000000000L, 100000000000L, 1000000000000L, 10000000000000L, 100000000000000L, 1000000000000000L};
         private final GeometryFactory geometryFactory = new GeometryFactory();
-        private final WKTReader wktReader = new WKTReader(geometryFactory);
+        private final ThreadLocal<WKTReader> wktReader = ThreadLocal.withInitial(() -> new WKTReader(geometryFactory));//WKTReader非线程安全，每个线程一个
+        private final ThreadLocal<WKBReader> wkbReader = ThreadLocal.withInitial(() -> new WKBReader(geometryFactory));
+        private final ThreadLocal<WKBWriter> wkbWriter = ThreadLocal.withInitial(WKBWriter::new);//二维，大端字节序
+        private final ThreadLocal<ByteBuffer> twkbBuffer = ThreadLocal.withInitial(() -> ByteBuffer.allocate(4096));//toTwkb(Geometry, int)复用的缓冲区
+        private final ThreadLocal<GaussProjector> gaussProjector = ThreadLocal.withInitial(GaussProjector::new);//面积计算使用的高斯投影，复用缓冲区
+        private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();//并行批量处理使用的线程池
+        private int parallelThreshold = 8192;//并行计算面积时，顶点数不超过该值不再拆分
+        private int batchConcurrency = 0;//批量计算面积时同时处理的最大记录数，0表示线程池并行度的4倍
+        private boolean sweepHullTriangulation = false;//凹壳计算是否使用数组实现的扫描线Delaunay三角剖分
+        private boolean parallelDigging = false;//农机轮廓分成多块后是否在forkJoinPool中并行挖掘
+        private FarmUnion farmUnion = FarmUnion.BUFFER;//农机轮廓合并多边形和管道的方式
+        private int farmCacheSize = 0;//农机轮廓缓存的最大条数，0表示不缓存
+        private long farmCacheWeight = 64L * 1024 * 1024;//农机轮廓缓存的最大权重，即结果字符串的字符数之和
+        private long farmCacheTtlNanos = 0;//农机轮廓缓存写入后的存活时间，0表示不过期
+        private FarmCache farmCache = null;//构建时按farmCacheSize创建
+        private int farmTilePoints = 0;//农机轮廓分块计算的每块点数，点数超过该值时分块，0表示不分块
+        private GridDecimator.Mode decimation = GridDecimator.Mode.NONE;//凹壳计算前的网格抽稀方式
+        private double decimationRatio = 0.25;//抽稀网格边长与检测半径之比
+        private int farmThreads = Runtime.getRuntime().availableProcessors();//异步计算轮廓的线程数
+        private int farmQueueSize = 1024;//异步计算轮廓的等待队列长度
+        private FarmRejectPolicy farmRejectPolicy = FarmRejectPolicy.ABORT;//等待队列已满时的处理方式
+        private ThreadPoolExecutor farmExecutor = null;//首次异步计算轮廓时创建，close时关闭
+        private boolean closed = false;//已调用close，之后不再创建线程池
+        private final Map<String, Fence> fenceMap = new ConcurrentHashMap<>();//已注册的电子围栏
+        private final AtomicLong fenceVersion = new AtomicLong();//围栏变更版本号
+        private volatile FenceIndex fenceIndex = null;//围栏外包矩形空间索引，围栏变更后惰性重建
+    }
+
+    /**
+     * 围栏空间索引，STRtree构建后只读，可多线程并发查询
+     */
+    private static class FenceIndex {
+        private final long version;
+        private final STRtree tree;
+
+        private FenceIndex(long version, STRtree tree) {
+            this.version = version;
+            this.tree = tree;
+        }
+    }
+
+    /**
+     * 圆形围栏，创建时预先计算圆心的三角函数值、半径对应的半正矢阈值和外包范围
+     * <p>
+     * 判断时先用经纬度范围快速排除，再在半正矢空间比较，不再计算asin和sqrt；
+     * 结果与inCircle(double, double, double, double, double)一致，阈值附近的点回退到原始算法计算
+     */
+    public static final class CircleFence {
+        private final double centerLon;
+        private final double centerLat;
+        private final double radius;
+        private final double radLat;
+        private final double radLon;
+        private final double cosLat;
+        private final double hav;//半正矢阈值，小于该值在圆内
+        private final double latTolerance;//纬度差超过该值(度)一定在圆外
+        private final double lonTolerance;//经度差超过该值(度)一定在圆外，圆覆盖极点时为无穷大
+
+        private CircleFence(double centerLon, double centerLat, double radius) {
+            this.centerLon = centerLon;
+            this.centerLat = centerLat;
+            this.radius = radius;
+            this.radLat = centerLat * Math.PI / 180.0;
+            this.radLon = centerLon * Math.PI / 180.0;
+            this.cosLat = Math.cos(radLat);
+            //距离保留4位小数后再与半径比较，先求出取整后不小于半径的最小整数k(单位0.1毫米)，再换算成未取整距离的上限
+            double k = Math.ceil(radius * 10000);
+            if ((k - 1) / 10000 >= radius) {
+                k--;
+            } else if (k / 10000 < radius) {
+                k++;
+            }
+            double limit = (k - 0.5) / 10000;
+            double angle = limit / 6378137;//圆心角
+            if (!(angle > 0)) {
+                hav = -1;
+                latTolerance = lonTolerance = -1;
+            } else if (angle >= Math.PI) {
+                hav = Double.POSITIVE_INFINITY;
+                latTolerance = lonTolerance = Double.POSITIVE_INFINITY;
+            } else {
+                double sin = Math.sin(angle / 2);
+                hav = sin * sin;
+                latTolerance = Math.toDegrees(angle) * (1 + 1e-9) + 1e-12;
+                double maxLat = Math.abs(radLat) + angle;
+                double ratio = maxLat < Math.PI / 2 ? hav / (cosLat * Math.cos(maxLat)) : Double.POSITIVE_INFINITY;
+                lonTolerance = ratio < 1 ? Math.toDegrees(2 * Math.asin(Math.sqrt(ratio))) * (1 + 1e-9) + 1e-12 : Double.POSITIVE_INFINITY;
+            }
+        }
+
+        public double getCenterLon() {
+            return centerLon;
+        }
+
+        public double getCenterLat() {
+            return centerLat;
+        }
+
+        public double getRadius() {
+            return radius;
+        }
+    }
+
+    /**
+     * 已注册的电子围栏
+     * <p>
+     * 注册时一次性构建预处理图形和点定位索引，之后每次判断都复用
+     */
+    private static class Fence {
+        private final String id;
+        private final Geometry geometry;
+        private final PreparedGeometry preparedGeometry;
+        private final IndexedPointInAreaLocator locator;//面状图形才有，其他类型为null
+
+        private Fence(String id, Geometry geometry) {
+            this.id = id;
+            this.geometry = geometry;
+            this.preparedGeometry = PreparedGeometryFactory.prepare(geometry);
+            this.locator = geometry instanceof Polygonal ? new IndexedPointInAreaLocator(geometry) : null;
+        }
+
+        private boolean contains(double lon, double lat) {
+            if (locator != null) {
+                //contains语义下边界上的点不算在内
+                return locator.locate(new Coordinate(lon, lat)) == Location.INTERIOR;
+            }
+            return preparedGeometry.contains(geometry.getFactory().createPoint(new Coordinate(lon, lat)));
+        }
     }
 
     public static class Builder {
         private final Config config = new Config();
 
+        /**
+         * 设置并行批量处理使用的线程池，默认为ForkJoinPool.commonPool()
+         * <p>
+         * 线程池由调用方管理，close时不会关闭
+         *
+         * @param forkJoinPool 线程池
+         * @return Builder
+         */
+        public Builder setForkJoinPool(ForkJoinPool forkJoinPool) {
+            config.forkJoinPool = forkJoinPool;
+            return this;
+        }
+
+        /**
+         * 设置并行计算面积的拆分阈值，默认为8192
+         *
+         * @param parallelThreshold 顶点数不超过该值时不再拆分，整个图形不超过该值时直接串行计算
+         * @return Builder
+         */
+        public Builder setParallelThreshold(int parallelThreshold) {
+            config.parallelThreshold = Math.max(1, parallelThreshold);
+            return this;
+        }
+
+        /**
+         * 设置批量计算面积时同时处理(已读取未回调)的最大记录数，默认为线程池并行度的4倍
+         * <p>
+         * 达到该数量后读取输入的线程会阻塞，内存占用与输入总量无关
+         *
+         * @param batchConcurrency 最大记录数
+         * @return Builder
+         */
+        public Builder setBatchConcurrency(int batchConcurrency) {
+            config.batchConcurrency = Math.max(1, batchConcurrency);
+            return this;
+        }
+
+        /**
+         * 设置凹壳计算是否使用数组实现的扫描线(sweep-hull)Delaunay三角剖分，默认为false，使用JTS的三角剖分
+         * <p>
+         * 三角形存放在int数组中，不创建QuadEdge对象，百万级点集的三角剖分快一个数量级；
+         * 点集中有4个以上点共圆时(例如规则网格)三角剖分不唯一，轮廓可能与JTS三角剖分的结果有细微差异
+         *
+         * @param sweepHullTriangulation 是否使用
+         * @return Builder
+         */
+        public Builder setSweepHullTriangulation(boolean sweepHullTriangulation) {
+            config.sweepHullTriangulation = sweepHullTriangulation;
+            return this;
+        }
+
+        /**
+         * 设置农机轮廓(polygonFarm)分成多块后是否并行挖掘，默认为false
+         * <p>
+         * 轮廓分裂出的各块互不相关，并行时每块在forkJoinPool中独立计算，结果与串行相同；只有一块的地块没有收益
+         *
+         * @param parallelDigging 是否并行
+         * @return Builder
+         */
+        public Builder setParallelDigging(boolean parallelDigging) {
+            config.parallelDigging = parallelDigging;
+            return this;
+        }
+
+        /**
+         * 设置农机轮廓(polygonFarm)合并多边形和连通管道的方式，默认为FarmUnion.BUFFER，输出与旧版本一致
+         * <p>
+         * 两种方式的轮廓图形相同(归一化后一致)，分块较多时OVERLAY_NG明显更快；
+         * 但OVERLAY_NG环的起点可能不同，返回的wktStr和googleStr字符串与BUFFER不完全一致，
+         * 已保存的结果需要按字符串比较时不要开启
+         *
+         * @param farmUnion 合并方式
+         * @return Builder
+         */
+        public Builder setFarmUnion(FarmUnion farmUnion) {
+            config.farmUnion = farmUnion;
+            return this;
+        }
+
+        /**
+         * 设置农机轮廓(polygonFarm)缓存的最大条数，默认为0，不缓存
+         * <p>
+         * 同一作业的点集重复计算时(重试、重新生成报表、界面刷新)直接返回上次的结果；
+         * 键为坐标的64位指纹加检测半径和作业面积，超时或被取消的不完整结果不缓存，统计见getPolygonFarmCacheStats
+         *
+         * @param farmCacheSize 最大条数
+         * @return Builder
+         */
+        public Builder setFarmCacheSize(int farmCacheSize) {
+            config.farmCacheSize = Math.max(0, farmCacheSize);
+            return this;
+        }
+
+        /**
+         * 设置农机轮廓缓存的最大权重，默认为64M，即所有缓存结果的WKT和google字符串的字符数之和
+         *
+         * @param farmCacheWeight 最大权重
+         * @return Builder
+         */
+        public Builder setFarmCacheWeight(long farmCacheWeight) {
+            config.farmCacheWeight = Math.max(0, farmCacheWeight);
+            return this;
+        }
+
+        /**
+         * 设置农机轮廓缓存写入后的存活时间，默认为0，不过期
+         *
+         * @param ttl  存活时间
+         * @param unit 时间单位
+         * @return Builder
+         */
+        public Builder setFarmCacheTtl(long ttl, TimeUnit unit) {
+            config.farmCacheTtlNanos = Math.max(0, unit.toNanos(ttl));
+            return this;
+        }
+
+        /**
+         * 设置农机轮廓(polygonFarm)分块计算的每块点数，默认为0，不分块
+         * <p>
+         * 多日作业累积的百万级点集一次三角剖分可能超时，点数超过该值时按中位数切分成矩形分块，
+         * 每块加上4倍检测半径的重叠区后在forkJoinPool中并行计算，裁剪回分块后合并；内存占用按分块大小有界，轮廓与不分块的结果一致
+         *
+         * @param farmTilePoints 每块点数，例如100000
+         * @return Builder
+         */
+        public Builder setFarmTilePoints(int farmTilePoints) {
+            config.farmTilePoints = Math.max(0, farmTilePoints);
+            return this;
+        }
+
+        /**
+         * 设置凹壳计算前的网格抽稀方式，默认为GridDecimator.Mode.NONE，不抽稀
+         * <p>
+         * 点按检测半径乘以抽稀比例的网格归并，每个格子只保留x、y最大最小的点；
+         * CELL保留所有格子，BOUNDARY只保留距空格子一个检测半径以内的格子；1Hz采集的大量近似重复点可大幅减少，三角剖分相应变快
+         *
+         * @param decimation 抽稀方式
+         * @return Builder
+         */
+        public Builder setDecimation(GridDecimator.Mode decimation) {
+            config.decimation = decimation;
+            return this;
+        }
+
+        /**
+         * 设置抽稀网格边长与检测半径之比，默认为0.25，越大抽稀越多，轮廓向内收缩越多
+         *
+         * @param decimationRatio 比例
+         * @return Builder
+         */
+        public Builder setDecimationRatio(double decimationRatio) {
+            config.decimationRatio = decimationRatio;
+            return this;
+        }
+
+        /**
+         * 设置异步计算轮廓(polygonFarmAsync)的线程数，默认为CPU核数
+         *
+         * @param farmThreads 线程数
+         * @return Builder
+         */
+        public Builder setFarmThreads(int farmThreads) {
+            config.farmThreads = Math.max(1, farmThreads);
+            return this;
+        }
+
+        /**
+         * 设置异步计算轮廓的等待队列长度，默认为1024
+         * <p>
+         * 排队的任务会持有输入点集，队列长度限制了待计算数据占用的内存
+         *
+         * @param farmQueueSize 队列长度
+         * @return Builder
+         */
+        public Builder setFarmQueueSize(int farmQueueSize) {
+            config.farmQueueSize = Math.max(1, farmQueueSize);
+            return this;
+        }
+
+        /**
+         * 设置异步计算轮廓的等待队列已满时的处理方式，默认为FarmRejectPolicy.ABORT
+         *
+         * @param farmRejectPolicy 处理方式
+         * @return Builder
+         */
+        public Builder setFarmRejectPolicy(FarmRejectPolicy farmRejectPolicy) {
+            config.farmRejectPolicy = farmRejectPolicy;
+            return this;
+        }
+
         public JtsUtil build() {
+            if (config.farmCacheSize > 0) {
+                config.farmCache = new FarmCache(config.farmCacheSize, config.farmCacheWeight, config.farmCacheTtlNanos);
+            }
             return new JtsUtil(config);
         }
     }
@@ -80,53 +435,180 @@ public class JtsUtil implements AutoCloseable {
     @Override
     public void close() {
         log.info("[销毁JtsUtil] 开始");
+        synchronized (config) {
+            config.closed = true;
+            if (config.farmExecutor != null) {
+                config.farmExecutor.shutdown();//已提交的任务会继续执行完
+            }
+        }
         log.info("[销毁JtsUtil] 结束");
     }
 
-    /**
-     * 由WGS84坐标转换高斯投影坐标
-     * 6度带宽
-     *
-     * @param coordinate 点(经度，纬度)
-     * @return [x, y]
-     */
-    private Coordinate wgs84ToGauss(Coordinate coordinate) {
-        double longitude = coordinate.getX();
-        double latitude = coordinate.getY();
-        int ProjNo;//投影带号
-        int ZoneWide;//带宽
-        double longitude1, latitude1, longitude0, latitude0, X0, Y0, xval, yval;
-        double a, f, e2, ee, NN, T, C, A, M, iPI;
-        iPI = 0.0174532925199433;               //3.1415926535898/180.0;
-        ZoneWide = 6;                           //6度带宽
-        a = 6378137.0;
-        f = 1.0 / 298.257223563;//WGS84
-        ProjNo = (int) (longitude / ZoneWide);
-        longitude0 = ProjNo * ZoneWide + ZoneWide / 2;
-        longitude0 = longitude0 * iPI;
-        longitude1 = longitude * iPI; //经度转换为弧度
-        latitude1 = latitude * iPI; //纬度转换为弧度
-        e2 = 2 * f - f * f;
-        ee = e2 * (1.0 - e2);
-        NN = a / Math.sqrt(1.0 - e2 * Math.sin(latitude1) * Math.sin(latitude1));
-        T = Math.tan(latitude1) * Math.tan(latitude1);
-        C = ee * Math.cos(latitude1) * Math.cos(latitude1);
-        A = (longitude1 - longitude0) * Math.cos(latitude1);
-        M = a * ((1 - e2 / 4 - 3 * e2 * e2 / 64 - 5 * e2 * e2 * e2 / 256) * latitude1 - (3 * e2 / 8 + 3 * e2 * e2 / 32 + 45 * e2 * e2 * e2 / 1024) * Math.sin(2 * latitude1) + (15 * e2 * e2 / 256 + 45 * e2 * e2 * e2 / 1024) * Math.sin(4 * latitude1) - (35 * e2 * e2 * e2 / 3072) * Math.sin(6 * latitude1));
-        xval = NN * (A + (1 - T + C) * A * A * A / 6 + (5 - 18 * T + T * T + 72 * C - 58 * ee) * A * A * A * A * A / 120);
-        yval = M + NN * Math.tan(latitude1) * (A * A / 2 + (5 - T + 9 * C + 4 * C * C) * A * A * A * A / 24 + (61 - 58 * T + T * T + 600 * C - 330 * ee) * A * A * A * A * A * A / 720);
-        X0 = 1000000L * (ProjNo + 1) + 500000L;
-        Y0 = 0;
-        return new Coordinate(xval + X0, yval + Y0);
-    }
-
     /**
      * WKT读取器
+     * <p>
+     * 返回的是当前线程专用的读取器，不要交给其他线程使用
      *
      * @return WKT读取器
      */
     public WKTReader getWktReader() {
-        return config.wktReader;
+        return config.wktReader.get();
+    }
+
+    /**
+     * 解析WKT字符串，线程安全
+     *
+     * @param wkt WKT字符串
+     * @return 几何图形
+     * @throws ParseException WKT格式错误
+     */
+    public Geometry parseWkt(String wkt) throws ParseException {
+        return config.wktReader.get().read(wkt);
+    }
+
+    /**
+     * 并行解析WKT字符串
+     *
+     * @param wktList WKT字符串列表
+     * @return 几何图形列表，与wktList顺序一致
+     * @throws ParseException 任意一个WKT格式错误时抛出，多个错误时抛出下标最小的那个
+     */
+    public List<Geometry> parseWkt(List<String> wktList) throws ParseException {
+        int size = wktList.size();
+        Geometry[] geometries = new Geometry[size];
+        ParseException[] errors = new ParseException[size];
+        config.forkJoinPool.submit(() -> IntStream.range(0, size).parallel().forEach(i -> {
+            try {
+                geometries[i] = parseWkt(wktList.get(i));
+            } catch (ParseException e) {
+                errors[i] = e;
+            }
+        })).join();
+        for (ParseException e : errors) {
+            if (e != null) {
+                throw e;
+            }
+        }
+        return Arrays.asList(geometries);
+    }
+
+    /**
+     * 将几何图形写为WKB(二维，大端字节序)
+     *
+     * @param geometry 几何图形
+     * @return WKB
+     */
+    public byte[] toWkb(Geometry geometry) {
+        return config.wkbWriter.get().write(geometry);
+    }
+
+    /**
+     * 将几何图形写为WKB(二维，大端字节序)，写入buffer当前position
+     *
+     * @param geometry 几何图形
+     * @param buffer   输出，可以复用
+     * @return 写入的字节数
+     * @throws java.nio.BufferOverflowException buffer剩余空间不足
+     */
+    public int toWkb(Geometry geometry, ByteBuffer buffer) {
+        int start = buffer.position();
+        try {
+            config.wkbWriter.get().write(geometry, (buf, len) -> buffer.put(buf, 0, len));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.position() - start;
+    }
+
+    /**
+     * 解析WKB，线程安全
+     *
+     * @param wkb WKB
+     * @return 几何图形
+     * @throws ParseException WKB格式错误
+     */
+    public Geometry parseWkb(byte[] wkb) throws ParseException {
+        return config.wkbReader.get().read(wkb);
+    }
+
+    /**
+     * 从buffer当前position解析WKB，线程安全，读完后position指向图形末尾
+     *
+     * @param buffer 输入
+     * @return 几何图形
+     * @throws ParseException WKB格式错误或数据不完整
+     */
+    public Geometry parseWkb(ByteBuffer buffer) throws ParseException {
+        try {
+            return config.wkbReader.get().read(buf -> {
+                int n = Math.min(buf.length, buffer.remaining());
+                buffer.get(buf, 0, n);
+                return n;
+            });
+        } catch (IOException e) {
+            throw new ParseException(e);
+        }
+    }
+
+    /**
+     * 将几何图形写为TWKB，坐标按precision位小数取整后差分存储，通常只有WKB的1/3~1/5大小
+     * <p>
+     * 只保留二维坐标；TWKB无法表示多点中的空点，MULTIPOINT中的空成员会被丢弃
+     *
+     * @param geometry  几何图形
+     * @param precision 小数位数，-7~7，经纬度取6时误差约0.1米
+     * @return TWKB
+     */
+    public byte[] toTwkb(Geometry geometry, int precision) {
+        ByteBuffer buffer = config.twkbBuffer.get();
+        while (true) {
+            buffer.clear();
+            try {
+                Twkb.write(geometry, precision, buffer);
+                break;
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                config.twkbBuffer.set(buffer);
+            }
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * 将几何图形写为TWKB，写入buffer当前position
+     *
+     * @param geometry  几何图形
+     * @param precision 小数位数，-7~7
+     * @param buffer    输出，可以复用
+     * @return 写入的字节数
+     * @throws java.nio.BufferOverflowException buffer剩余空间不足，此时buffer中已写入部分数据
+     */
+    public int toTwkb(Geometry geometry, int precision, ByteBuffer buffer) {
+        int start = buffer.position();
+        Twkb.write(geometry, precision, buffer);
+        return buffer.position() - start;
+    }
+
+    /**
+     * 解析TWKB，线程安全
+     *
+     * @param twkb TWKB
+     * @return 几何图形
+     * @throws ParseException TWKB格式错误
+     */
+    public Geometry parseTwkb(byte[] twkb) throws ParseException {
+        return Twkb.read(ByteBuffer.wrap(twkb), config.geometryFactory);
+    }
+
+    /**
+     * 从buffer当前position解析TWKB，线程安全，读完后position指向图形末尾
+     *
+     * @param buffer 输入
+     * @return 几何图形
+     * @throws ParseException TWKB格式错误或数据不完整
+     */
+    public Geometry parseTwkb(ByteBuffer buffer) throws ParseException {
+        return Twkb.read(buffer, config.geometryFactory);
     }
 
     /**
@@ -273,6 +755,140 @@ public class JtsUtil implements AutoCloseable {
         return null;
     }
 
+    /**
+     * 将多边形外轮廓转换为google格式字符串[[lat,lon],[lat,lon],……]，直接遍历坐标序列写入sb，不产生中间字符串
+     * <p>
+     * 适合顶点很多的多边形，sb可以复用
+     *
+     * @param polygon   多边形
+     * @param precision 保留的小数位数(0~15)，末尾的0会去掉
+     * @param sb        输出
+     * @return 外轮廓为空时返回false，sb不变
+     */
+    public boolean wktToGoogleStr(Polygon polygon, int precision, StringBuilder sb) {
+        CoordinateSequence sequence = polygon.getExteriorRing().getCoordinateSequence();
+        int size = sequence.size();
+        if (size == 0) {
+            return false;
+        }
+        sb.append('[');
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append('[');
+            appendOrdinate(sb, sequence.getY(i), precision);
+            sb.append(',');
+            appendOrdinate(sb, sequence.getX(i), precision);
+            sb.append(']');
+        }
+        sb.append(']');
+        return true;
+    }
+
+    /**
+     * 将google格式字符串[[lat,lon],[lat,lon],……]转换为WKT字符串写入sb，逐字符扫描，经纬度原样拷贝
+     * <p>
+     * 与googleStrToWkt(String)一样，点数不超过3个时认为不是多边形
+     *
+     * @param googleStr google格式字符串
+     * @param sb        输出
+     * @return 不是多边形时返回false，sb不变
+     */
+    public boolean googleStrToWkt(CharSequence googleStr, StringBuilder sb) {
+        int start = sb.length();
+        sb.append("POLYGON ((");
+        int count = 0;
+        int i = 0, n = googleStr.length();
+        while (true) {
+            //找到点的起始'['，它后面紧跟的不是'['
+            while (i < n && (googleStr.charAt(i) != '[' || (i + 1 < n && googleStr.charAt(i + 1) == '['))) {
+                i++;
+            }
+            if (i >= n) {
+                break;
+            }
+            int latStart = skipWhitespace(googleStr, i + 1, n);
+            int comma = latStart;
+            while (comma < n && googleStr.charAt(comma) != ',' && googleStr.charAt(comma) != ']') {
+                comma++;
+            }
+            if (comma >= n || googleStr.charAt(comma) != ',') {
+                break;
+            }
+            int lonStart = skipWhitespace(googleStr, comma + 1, n);
+            int end = lonStart;
+            while (end < n && googleStr.charAt(end) != ']') {
+                end++;
+            }
+            if (end >= n) {
+                break;
+            }
+            if (count > 0) {
+                sb.append(',');
+            }
+            sb.append(googleStr, lonStart, trimEnd(googleStr, lonStart, end)).append(' ').append(googleStr, latStart, trimEnd(googleStr, latStart, comma));
+            count++;
+            i = end + 1;
+        }
+        if (count > 3) {
+            sb.append("))");
+            return true;
+        }
+        sb.setLength(start);
+        return false;
+    }
+
+    private int skipWhitespace(CharSequence cs, int i, int end) {
+        while (i < end && Character.isWhitespace(cs.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private int trimEnd(CharSequence cs, int start, int end) {
+        while (end > start && Character.isWhitespace(cs.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * 按指定小数位数输出坐标值，不经过Double.toString/String.format
+     */
+    private void appendOrdinate(StringBuilder sb, double value, int precision) {
+        precision = Math.max(0, Math.min(precision, 15));
+        long scale = config.POW10[precision];
+        double scaled = Math.abs(value) * scale;
+        if (Double.isNaN(value) || Double.isInfinite(value) || scaled >= 9007199254740992.0) {//超出long精确范围时按默认格式输出
+            sb.append(value);
+            return;
+        }
+        long v = Math.round(scaled);
+        if (v == 0) {
+            sb.append('0');
+            return;
+        }
+        if (value < 0) {
+            sb.append('-');
+        }
+        sb.append(v / scale);
+        long fraction = v % scale;
+        if (fraction == 0) {
+            return;
+        }
+        int digits = precision;
+        while (fraction % 10 == 0) {
+            fraction /= 10;
+            digits--;
+        }
+        sb.append('.');
+        for (long p = config.POW10[digits - 1]; p > fraction; p /= 10) {
+            sb.append('0');
+        }
+        sb.append(fraction);
+    }
+
     /**
      * 离散点构建凹多边形
      *
@@ -292,140 +908,862 @@ public class JtsUtil implements AutoCloseable {
      * @return 返回值为[wktStr, googleStr]
      */
     public String[] polygonFarm(MultiPoint multiPoint, Double area, Integer timeOut) {
-        String[] result = new String[2];
         //开始计算凹壳
-        ConcaveHullJTS cah = new ConcaveHullJTS(multiPoint);
-        //先检测面积推断检测半径
-        TriCheckerAlpha checkerAlpha;
-        if (area > 0 && area < 666) { //阈值设置为1亩
-            checkerAlpha = new TriCheckerAlpha(0.00001);
-        } else { //非法参数或者大于1亩都设半径为0.0001
-            checkerAlpha = new TriCheckerAlpha(0.0001);
+        TriCheckerAlpha checkerAlpha = checkerAlpha(area);
+        FarmKey key = farmKey(multiPoint, area, checkerAlpha);
+        String[] cached = cachedFarm(key);
+        if (cached != null) {
+            return cached;
         }
-        Collection<Geometry> hulls = cah.getConcaveHullBFS(checkerAlpha, true, false, timeOut);
-        if (CollUtil.isNotEmpty(hulls)) {
-            double sum = 0;
-            for (Geometry hull : hulls) {
-                sum += hull.getArea();
-            }
-            //去除面积较小的5%
-            List<Geometry> newhulls = new ArrayList<>();
-            for (Geometry hull : hulls) {
-                if (hull.getArea() >= sum * 0.05) {
-                    newhulls.add(hull);
-                }
-            }
-            hulls.clear();
-            hulls.addAll(newhulls);
-            GeometryCollection geometryCollection = config.geometryFactory.createGeometryCollection(hulls.toArray(new Geometry[hulls.size()]));
-            Geometry resultGeometry = geometryCollection.buffer(0);//返回集合对象
-            if (resultGeometry.isEmpty()) {
-                return result;
+        Collection<Geometry> hulls;
+        if (tiled(multiPoint)) {//分块计算时超时包含三角剖分
+            CancellationToken token = CancellationToken.timeout((null == timeOut ? 5 : timeOut) + 1, TimeUnit.SECONDS);
+            hulls = tiledConcaveHull(multiPoint, checkerAlpha, token);
+            if (token.isExpired()) {
+                hulls = null;
             }
-            //返回的WKT字符串
-            result[0] = resultGeometry.toText();
-            if (newhulls.size() > 1) {
-                //构造连通多边形之间的管道
-                Coordinate coordinatePre = newhulls.get(0).getCoordinate();
-                for (int j = 1; j < newhulls.size(); j++) {
-                    Coordinate coordinate = newhulls.get(j).getCoordinate();
-                    Coordinate[] coordinates = {coordinate, coordinatePre};
-                    LineString lineString = config.geometryFactory.createLineString(coordinates);
-                    BufferOp bufferOp = new BufferOp(lineString);
-                    bufferOp.setEndCapStyle(BufferOp.CAP_ROUND);
-                    Geometry line = bufferOp.getResultGeometry(0.0000001);//用于连通的多边形
-                    hulls.add(line);
-                    coordinatePre = coordinate;
-                }
-                //合并管道和多边形
-                GeometryCollection collection = config.geometryFactory.createGeometryCollection(hulls.toArray(new Geometry[hulls.size()]));
-                Geometry buffer = collection.buffer(0);
-                if (config.POLYGON.equals(buffer.getGeometryType())) {
-                    result[1] = wktToGoogleStr((Polygon) buffer);
-                }
-            } else if (hulls.size() == 1) { //过滤完结果只剩一个多边形
-                for (Geometry hull : hulls) {
-                    if (config.POLYGON.equals(hull.getGeometryType())) {
-                        result[1] = wktToGoogleStr((Polygon) hull);
-                    } else {
-                        log.error("凹壳转换多边形异常");
-                    }
-                }
-            } else { //数据异常过滤完之后没有多边形
-                log.error("多边形过滤数据异常数据信息有误");
+        } else if (config.parallelDigging) {
+            ConcaveHullIndexed cah = concaveHull(multiPoint, checkerAlpha);
+            CancellationToken token = CancellationToken.timeout((null == timeOut ? 5 : timeOut) + 1, TimeUnit.SECONDS);
+            hulls = cah.getConcaveHullBFS(checkerAlpha, false, token, config.forkJoinPool);
+            if (token.isExpired()) {
+                hulls = null;
             }
+        } else {
+            ConcaveHullIndexed cah = concaveHull(multiPoint, checkerAlpha);
+            hulls = cah.getConcaveHullBFS(checkerAlpha, true, false, timeOut);
         }
-        return result;
+        return cacheFarm(key, hulls != null, polygonFarm(hulls));//超时的结果不缓存
     }
 
     /**
-     * 根据点集计算凹壳 根据返回的多边形面积和作业是上传的作业面积对比 判断依据凹壳面积和作业面积1.5倍比较
+     * 离散点构建凹多边形，农机专用，可取消
      * <p>
-     * 如果5秒中都没有计算出来，就直接抛超时异常
+     * 超时或被取消时不会丢弃已完成的计算，返回当前挖掘程度的轮廓(有效但凹得不够)，调用线程的等待时间在毫秒级有界
      *
-     * @param multipPoint 离散点集
-     * @param area        实际作业面积 单位：平方米 切记不是亩！！
-     * @return 凹壳多边形
+     * @param multiPoint 离散点集
+     * @param area       实际作业面积 单位：平方米 切记不是亩！！
+     * @param token      截止时间和取消标志，例如CancellationToken.timeout(200, TimeUnit.MILLISECONDS)
+     * @return 返回值为[wktStr, googleStr]
      */
-    public Polygon polygon(MultiPoint multipPoint, Double area) throws InterruptedException, ExecutionException, TimeoutException {
-        ConcaveHullJTS cah = new ConcaveHullJTS(multipPoint);
-        //开始计算凹壳
-        //先检测面积推断检测半径
-        TriCheckerAlpha checkerAlpha; //检测半径
-        if (area > 0 && area < 666) { //阈值设置为1亩
-            checkerAlpha = new TriCheckerAlpha(0.00001);
-        } else { //非法参数或者大于1亩都设半径为0.0001
-            checkerAlpha = new TriCheckerAlpha(0.0001);
+    public String[] polygonFarm(MultiPoint multiPoint, Double area, CancellationToken token) {
+        TriCheckerAlpha checkerAlpha = checkerAlpha(area);
+        FarmKey key = farmKey(multiPoint, area, checkerAlpha);
+        String[] cached = cachedFarm(key);
+        if (cached != null) {
+            return cached;
         }
-        Collection<Geometry> hulls = cah.getConcaveHullBFS(checkerAlpha, false, false, null);
-        //结果只会有一个简单多边形 不会含有洞的情况
-        //返回值
-        Polygon result = null;
-        if (CollUtil.isNotEmpty(hulls) && hulls.size() == 1) {
-            for (Geometry hull : hulls) {
-                if (config.POLYGON.equals(hull.getGeometryType())) {
-                    result = (Polygon) hull;
-                } else {
-                    log.error("凹壳转换多边形异常");
-                }
-            }
+        Collection<Geometry> hulls;
+        if (tiled(multiPoint)) {
+            hulls = tiledConcaveHull(multiPoint, checkerAlpha, token);
+        } else {
+            ConcaveHullIndexed cah = concaveHull(multiPoint, checkerAlpha);
+            hulls = config.parallelDigging
+                    ? cah.getConcaveHullBFS(checkerAlpha, false, token, config.forkJoinPool)
+                    : cah.getConcaveHullBFS(checkerAlpha, true, false, token);
         }
-        return result;
+        return cacheFarm(key, !token.isExpired(), polygonFarm(hulls));//不完整的结果不缓存
     }
 
     /**
-     * 点是否在矩形区域内
+     * 农机作业轮廓缓存的命中统计
      *
-     * @param pointLat 点纬度
-     * @param pointLon 点经度
-     * @param leftLon  左上角经度
-     * @param leftLat  左上角纬度
-     * @param rightLon 右下角经度
-     * @param rightLat 右下角纬度
-     * @return
+     * @return 统计快照，未开启缓存时为null
      */
-    public boolean inRectangle(double pointLon, double pointLat, double leftLon, double leftLat, double rightLon, double rightLat) {
-        return new Envelope(new Coordinate(leftLon, leftLat), new Coordinate(rightLon, rightLat)).contains(pointLon, pointLat);
+    public PolygonFarmCacheStats getPolygonFarmCacheStats() {
+        return config.farmCache == null ? null : config.farmCache.stats();
     }
 
     /**
-     * 判断点是否在圆内
-     *
-     * @param pointLon        点经度
-     * @param pointLat        点纬度
-     * @param centerCircleLon 圆心经度
-     * @param centerCircleLat 圆心纬度
-     * @param radius          圆半径(米)
-     * @return
+     * 清空农机作业轮廓缓存，统计数据保留
      */
-    public boolean inCircle(double pointLon, double pointLat, double centerCircleLon, double centerCircleLat, double radius) {
-        return pointDistance(pointLon, pointLat, centerCircleLon, centerCircleLat) < radius;
+    public void clearPolygonFarmCache() {
+        if (config.farmCache != null) {
+            config.farmCache.clear();
+        }
     }
 
     /**
-     * 点是否在几何图形内
+     * 创建增量计算轮廓的对象，农机作业过程中按批加入新的点，每次刷新轮廓只计算边界附近的点和新加入的点
+     * <p>
+     * 检测半径按作业面积推断，与polygonFarm相同；返回的对象非线程安全
      *
-     * @param point
+     * @param area 实际作业面积 单位：平方米 切记不是亩！！
+     * @return 增量凹壳
+     */
+    public IncrementalConcaveHull incrementalPolygonFarm(Double area) {
+        return new IncrementalConcaveHull(checkerAlpha(area), true, config.geometryFactory);
+    }
+
+    /**
+     * 离散点构建凹多边形，农机专用，使用增量凹壳的当前结果
+     *
+     * @param hull 增量凹壳，加入新的点后重新计算
+     * @return 返回值为[wktStr, googleStr]
+     */
+    public String[] polygonFarm(IncrementalConcaveHull hull) {
+        return polygonFarm(new ArrayList<>(hull.getConcaveHull()));
+    }
+
+    /**
+     * 农机轮廓合并多边形和连通管道的方式
+     */
+    public enum FarmUnion {
+        /**
+         * 原来的buffer(0)合并，每条管道单独缓冲，默认方式，输出字符串与旧版本完全一致
+         */
+        BUFFER,
+        /**
+         * 凹壳各块按覆盖合并，管道合成一个MultiLineString一次缓冲后用OverlayNG合并；浮点精度下节点化失败时OverlayNG自动吸附后重试
+         * <p>
+         * 需要通过Builder.setFarmUnion开启；轮廓图形与BUFFER相同，但环的起点等不同，wktStr和googleStr字符串与BUFFER不一致
+         */
+        OVERLAY_NG
+    }
+
+    /**
+     * 异步计算轮廓时等待队列已满的处理方式
+     */
+    public enum FarmRejectPolicy {
+        /**
+         * 拒绝新任务，返回的future以RejectedExecutionException异常完成
+         */
+        ABORT,
+        /**
+         * 在提交任务的线程中直接计算
+         */
+        CALLER_RUNS,
+        /**
+         * 丢弃等待最久的任务(其future以RejectedExecutionException异常完成)，新任务入队
+         */
+        DISCARD_OLDEST
+    }
+
+    /**
+     * 离散点构建凹多边形，农机专用，异步计算
+     * <p>
+     * 在有界线程池中计算，线程数、队列长度和队列已满时的处理方式通过Builder设置，线程池在close时关闭；
+     * token的截止时间从提交时开始计算，排队时间也算在内；取消返回的future会同时取消计算
+     *
+     * @param multiPoint 离散点集
+     * @param area       实际作业面积 单位：平方米 切记不是亩！！
+     * @param token      截止时间和取消标志，null表示不限时
+     * @return 计算结果和耗时统计
+     */
+    public CompletableFuture<PolygonFarmResult> polygonFarmAsync(MultiPoint multiPoint, Double area, CancellationToken token) {
+        CancellationToken cancellationToken = token != null ? token : CancellationToken.none();
+        FarmTask task = new FarmTask(multiPoint, area, cancellationToken);
+        task.future.whenComplete((result, e) -> {
+            if (task.future.isCancelled()) {
+                cancellationToken.cancel();
+            }
+        });
+        try {
+            farmExecutor().execute(task);
+        } catch (RejectedExecutionException e) {
+            task.future.completeExceptionally(e);
+        }
+        return task.future;
+    }
+
+    private ThreadPoolExecutor farmExecutor() {
+        synchronized (config) {
+            if (config.closed) {
+                throw new RejectedExecutionException("JtsUtil已关闭");
+            }
+            if (config.farmExecutor == null) {
+                config.farmExecutor = new ThreadPoolExecutor(config.farmThreads, config.farmThreads, 0L, TimeUnit.MILLISECONDS,
+                        new LinkedBlockingQueue<>(config.farmQueueSize), ThreadUtil.newNamedThreadFactory("jts-farm-", true), this::rejectFarmTask);
+            }
+            return config.farmExecutor;
+        }
+    }
+
+    private void rejectFarmTask(Runnable runnable, ThreadPoolExecutor executor) {
+        FarmTask task = (FarmTask) runnable;
+        if (executor.isShutdown()) {
+            task.future.completeExceptionally(new RejectedExecutionException("JtsUtil已关闭"));
+            return;
+        }
+        switch (config.farmRejectPolicy) {
+            case CALLER_RUNS:
+                task.run();
+                break;
+            case DISCARD_OLDEST:
+                Runnable oldest = executor.getQueue().poll();
+                if (oldest != null) {
+                    ((FarmTask) oldest).future.completeExceptionally(new RejectedExecutionException("轮廓计算队列已满，丢弃等待最久的任务"));
+                }
+                executor.execute(task);
+                break;
+            default:
+                task.future.completeExceptionally(new RejectedExecutionException("轮廓计算队列已满"));
+        }
+    }
+
+    /**
+     * 异步计算轮廓的任务，记录排队和计算时间
+     */
+    private final class FarmTask implements Runnable {
+        private final MultiPoint multiPoint;
+        private final Double area;
+        private final CancellationToken token;
+        private final CompletableFuture<PolygonFarmResult> future = new CompletableFuture<>();
+        private final long submitNanos = System.nanoTime();
+
+        private FarmTask(MultiPoint multiPoint, Double area, CancellationToken token) {
+            this.multiPoint = multiPoint;
+            this.area = area;
+            this.token = token;
+        }
+
+        @Override
+        public void run() {
+            if (future.isDone()) {//排队时已被取消
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                String[] result = polygonFarm(multiPoint, area, token);
+                future.complete(new PolygonFarmResult(result, multiPoint.getNumGeometries(), start - submitNanos, System.nanoTime() - start));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * 轮廓缓存的键
+     */
+    private static final class FarmKey {
+        private final long hash;
+        private final int pointCount;
+        private final long radiusBits;
+        private final long areaBits;
+
+        private FarmKey(long hash, int pointCount, long radiusBits, long areaBits) {
+            this.hash = hash;
+            this.pointCount = pointCount;
+            this.radiusBits = radiusBits;
+            this.areaBits = areaBits;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FarmKey)) {
+                return false;
+            }
+            FarmKey other = (FarmKey) o;
+            return hash == other.hash && pointCount == other.pointCount && radiusBits == other.radiusBits && areaBits == other.areaBits;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (hash ^ (hash >>> 32)) * 31 + pointCount;
+        }
+    }
+
+    /**
+     * 轮廓缓存，按访问顺序淘汰，条数、权重(结果字符数)和写入后存活时间有上限，所有操作加锁
+     */
+    private static final class FarmCache {
+        private static final int ENTRY_OVERHEAD = 64;//每条缓存的固定权重，近似键和数组的开销
+        private final int maximumSize;
+        private final long maximumWeight;
+        private final long ttlNanos;//0表示不过期
+        private final LinkedHashMap<FarmKey, FarmEntry> map = new LinkedHashMap<>(16, 0.75f, true);
+        private long weight = 0;
+        private long hitCount = 0;
+        private long missCount = 0;
+        private long evictionCount = 0;
+        private long expiredCount = 0;
+
+        private FarmCache(int maximumSize, long maximumWeight, long ttlNanos) {
+            this.maximumSize = maximumSize;
+            this.maximumWeight = maximumWeight;
+            this.ttlNanos = ttlNanos;
+        }
+
+        private synchronized String[] get(FarmKey key) {
+            FarmEntry entry = map.get(key);
+            if (entry == null) {
+                missCount++;
+                return null;
+            }
+            if (ttlNanos > 0 && System.nanoTime() - entry.writeNanos >= ttlNanos) {
+                remove(key, entry);
+                expiredCount++;
+                missCount++;
+                return null;
+            }
+            hitCount++;
+            return entry.result;
+        }
+
+        private synchronized void put(FarmKey key, String[] result) {
+            long entryWeight = ENTRY_OVERHEAD;
+            for (String s : result) {
+                entryWeight += s == null ? 0 : s.length();
+            }
+            if (entryWeight > maximumWeight) {//单条超过权重上限，不缓存
+                return;
+            }
+            FarmEntry old = map.put(key, new FarmEntry(result, entryWeight, System.nanoTime()));
+            if (old != null) {
+                weight -= old.weight;
+            }
+            weight += entryWeight;
+            Iterator<Map.Entry<FarmKey, FarmEntry>> iter = map.entrySet().iterator();
+            while ((map.size() > maximumSize || weight > maximumWeight) && iter.hasNext()) {//最久未访问的在前
+                Map.Entry<FarmKey, FarmEntry> eldest = iter.next();
+                iter.remove();
+                weight -= eldest.getValue().weight;
+                evictionCount++;
+            }
+        }
+
+        private void remove(FarmKey key, FarmEntry entry) {
+            map.remove(key);
+            weight -= entry.weight;
+        }
+
+        private synchronized void clear() {
+            map.clear();
+            weight = 0;
+        }
+
+        private synchronized PolygonFarmCacheStats stats() {
+            return new PolygonFarmCacheStats(hitCount, missCount, evictionCount, expiredCount, map.size(), weight);
+        }
+    }
+
+    /**
+     * 轮廓缓存的值
+     */
+    private static final class FarmEntry {
+        private final String[] result;
+        private final long weight;
+        private final long writeNanos;
+
+        private FarmEntry(String[] result, long weight, long writeNanos) {
+            this.result = result;
+            this.weight = weight;
+            this.writeNanos = writeNanos;
+        }
+    }
+
+    /**
+     * 过滤凹壳结果，合并多边形并构造连通管道
+     *
+     * @param hulls 凹壳结果
+     * @return 返回值为[wktStr, googleStr]
+     */
+    private String[] polygonFarm(Collection<Geometry> hulls) {
+        String[] result = new String[2];
+        if (CollUtil.isNotEmpty(hulls)) {
+            double sum = 0;
+            for (Geometry hull : hulls) {
+                sum += hull.getArea();
+            }
+            //去除面积较小的5%
+            List<Geometry> newhulls = new ArrayList<>();
+            for (Geometry hull : hulls) {
+                if (hull.getArea() >= sum * 0.05) {
+                    newhulls.add(hull);
+                }
+            }
+            hulls.clear();
+            hulls.addAll(newhulls);
+            Geometry resultGeometry = unionFarm(newhulls);//返回集合对象
+            if (resultGeometry.isEmpty()) {
+                return result;
+            }
+            //返回的WKT字符串
+            result[0] = resultGeometry.toText();
+            if (newhulls.size() > 1) {
+                //构造连通多边形之间的管道，合并管道和多边形
+                Geometry buffer = unionFarm(resultGeometry, farmCorridors(newhulls));
+                if (config.POLYGON.equals(buffer.getGeometryType())) {
+                    result[1] = wktToGoogleStr((Polygon) buffer);
+                }
+            } else if (hulls.size() == 1) { //过滤完结果只剩一个多边形
+                for (Geometry hull : hulls) {
+                    if (config.POLYGON.equals(hull.getGeometryType())) {
+                        result[1] = wktToGoogleStr((Polygon) hull);
+                    } else {
+                        log.error("凹壳转换多边形异常");
+                    }
+                }
+            } else { //数据异常过滤完之后没有多边形
+                log.error("多边形过滤数据异常数据信息有误");
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 合并凹壳多边形
+     * <p>
+     * 凹壳挖掘出的各块内部互不重叠，最多在顶点处相接，OVERLAY_NG按覆盖(coverage)合并，不需要对内部求交；不满足覆盖条件时改用OverlayNG级联合并
+     *
+     * @param hulls 凹壳多边形
+     * @return 合并结果
+     */
+    private Geometry unionFarm(List<Geometry> hulls) {
+        if (config.farmUnion == FarmUnion.BUFFER) {
+            return config.geometryFactory.createGeometryCollection(hulls.toArray(new Geometry[0])).buffer(0);
+        }
+        try {
+            return CoverageUnion.union(config.geometryFactory.buildGeometry(hulls));
+        } catch (TopologyException e) {
+            return OverlayNGRobust.union(hulls);
+        }
+    }
+
+    /**
+     * 合并多边形和连通管道
+     *
+     * @param polygons  已合并的多边形
+     * @param corridors 连通管道
+     * @return 合并结果
+     */
+    private Geometry unionFarm(Geometry polygons, List<Geometry> corridors) {
+        if (config.farmUnion == FarmUnion.OVERLAY_NG) {
+            return OverlayNGRobust.overlay(polygons, corridors.get(0), OverlayNG.UNION);
+        }
+        List<Geometry> all = new ArrayList<>();
+        for (int i = 0; i < polygons.getNumGeometries(); i++) {
+            all.add(polygons.getGeometryN(i));
+        }
+        all.addAll(corridors);
+        return config.geometryFactory.createGeometryCollection(all.toArray(new Geometry[0])).buffer(0);
+    }
+
+    /**
+     * 依次连通相邻多边形的管道
+     * <p>
+     * OVERLAY_NG合并时所有管道组成一个MultiLineString一次缓冲，BUFFER合并时每条管道单独缓冲
+     *
+     * @param hulls 过滤后的凹壳多边形，至少2个
+     * @return 管道多边形
+     */
+    private List<Geometry> farmCorridors(List<Geometry> hulls) {
+        LineString[] lines = new LineString[hulls.size() - 1];
+        Coordinate coordinatePre = hulls.get(0).getCoordinate();
+        for (int j = 1; j < hulls.size(); j++) {
+            Coordinate coordinate = hulls.get(j).getCoordinate();
+            lines[j - 1] = config.geometryFactory.createLineString(new Coordinate[]{coordinate, coordinatePre});
+            coordinatePre = coordinate;
+        }
+        List<Geometry> corridors = new ArrayList<>();
+        if (config.farmUnion == FarmUnion.OVERLAY_NG) {
+            corridors.add(corridorBuffer(config.geometryFactory.createMultiLineString(lines)));
+        } else {
+            for (LineString line : lines) {
+                corridors.add(corridorBuffer(line));
+            }
+        }
+        return corridors;
+    }
+
+    private Geometry corridorBuffer(Geometry line) {
+        BufferOp bufferOp = new BufferOp(line);
+        bufferOp.setEndCapStyle(BufferOp.CAP_ROUND);
+        return bufferOp.getResultGeometry(0.0000001);//用于连通的多边形
+    }
+
+    /**
+     * 按配置的抽稀和三角剖分方式创建凹壳计算对象
+     *
+     * @param multiPoint   离散点集
+     * @param checkerAlpha 检测半径，决定抽稀网格大小
+     * @return 凹壳计算对象
+     */
+    private ConcaveHullIndexed concaveHull(MultiPoint multiPoint, TriCheckerAlpha checkerAlpha) {
+        Geometry points = GridDecimator.decimate(multiPoint, checkerAlpha, config.decimationRatio, config.decimation);
+        return config.sweepHullTriangulation ? ConcaveHullIndexed.delaunator(points) : new ConcaveHullIndexed(points);
+    }
+
+    /**
+     * 轮廓缓存的键，未开启缓存时为null
+     * <p>
+     * 坐标按顺序混合成64位指纹，再加上点数、检测半径和作业面积；抽稀、三角剖分等选项在同一个JtsUtil内不变，不放入键中
+     *
+     * @param multiPoint   离散点集
+     * @param area         实际作业面积
+     * @param checkerAlpha 检测半径
+     * @return 缓存键
+     */
+    private FarmKey farmKey(MultiPoint multiPoint, Double area, TriCheckerAlpha checkerAlpha) {
+        if (config.farmCache == null) {
+            return null;
+        }
+        int n = multiPoint.getNumGeometries();
+        long hash = 0x9E3779B97F4A7C15L ^ n;
+        for (int i = 0; i < n; i++) {
+            Coordinate c = multiPoint.getGeometryN(i).getCoordinate();
+            if (c != null) {
+                hash = mix64(hash ^ Double.doubleToLongBits(c.x));
+                hash = mix64(hash ^ Double.doubleToLongBits(c.y));
+            }
+        }
+        return new FarmKey(hash, n, Double.doubleToLongBits(checkerAlpha.getR()), area == null ? 0L : Double.doubleToLongBits(area));
+    }
+
+    /**
+     * murmur3 fmix64
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    /**
+     * 取缓存的轮廓
+     *
+     * @param key 缓存键，null表示未开启缓存
+     * @return 缓存结果的副本，未命中时为null
+     */
+    private String[] cachedFarm(FarmKey key) {
+        if (key == null) {
+            return null;
+        }
+        String[] cached = config.farmCache.get(key);
+        return cached == null ? null : cached.clone();
+    }
+
+    /**
+     * 缓存完整计算的轮廓
+     *
+     * @param key      缓存键，null表示未开启缓存
+     * @param complete 是否完整计算，超时或被取消的结果不缓存
+     * @param result   计算结果
+     * @return 计算结果
+     */
+    private String[] cacheFarm(FarmKey key, boolean complete, String[] result) {
+        if (key != null && complete) {
+            config.farmCache.put(key, result.clone());
+        }
+        return result;
+    }
+
+    /**
+     * 点数是否超过分块计算的阈值
+     *
+     * @param multiPoint 离散点集
+     * @return 是否分块计算
+     */
+    private boolean tiled(MultiPoint multiPoint) {
+        return config.farmTilePoints > 0 && multiPoint.getNumGeometries() > config.farmTilePoints;
+    }
+
+    /**
+     * 抽稀后按分块在forkJoinPool中并行计算凹壳
+     *
+     * @param multiPoint   离散点集
+     * @param checkerAlpha 检测半径
+     * @param token        截止时间和取消标志
+     * @return 凹壳多边形
+     */
+    private Collection<Geometry> tiledConcaveHull(MultiPoint multiPoint, TriCheckerAlpha checkerAlpha, CancellationToken token) {
+        Geometry points = GridDecimator.decimate(multiPoint, checkerAlpha, config.decimationRatio, config.decimation);
+        return new TiledConcaveHull(checkerAlpha, config.farmTilePoints, multiPoint.getFactory()).getConcaveHull(points, token, config.forkJoinPool);
+    }
+
+    /**
+     * 根据作业面积推断检测半径
+     *
+     * @param area 实际作业面积 单位：平方米
+     * @return 三角形检测器
+     */
+    private TriCheckerAlpha checkerAlpha(Double area) {
+        if (area > 0 && area < 666) { //阈值设置为1亩
+            return new TriCheckerAlpha(0.00001);
+        } else { //非法参数或者大于1亩都设半径为0.0001
+            return new TriCheckerAlpha(0.0001);
+        }
+    }
+
+    /**
+     * 根据点集计算凹壳 根据返回的多边形面积和作业是上传的作业面积对比 判断依据凹壳面积和作业面积1.5倍比较
+     * <p>
+     * 如果5秒中都没有计算出来，就直接抛超时异常
+     *
+     * @param multipPoint 离散点集
+     * @param area        实际作业面积 单位：平方米 切记不是亩！！
+     * @return 凹壳多边形
+     * @throws TimeoutException 5秒内没有计算出轮廓
+     */
+    public Polygon polygon(MultiPoint multipPoint, Double area) throws InterruptedException, ExecutionException, TimeoutException {
+        TriCheckerAlpha checkerAlpha = checkerAlpha(area);
+        ConcaveHullIndexed cah = concaveHull(multipPoint, checkerAlpha);
+        Collection<Geometry> hulls = cah.getConcaveHullBFS(checkerAlpha, false, false, (Integer) null);
+        if (hulls == null) {
+            throw new TimeoutException("计算轮廓超时");
+        }
+        return polygon(hulls);
+    }
+
+    /**
+     * 根据点集计算凹壳，可取消
+     * <p>
+     * 超时或被取消时返回当前挖掘程度的轮廓(有效但凹得不够)，不抛超时异常
+     *
+     * @param multipPoint 离散点集
+     * @param area        实际作业面积 单位：平方米 切记不是亩！！
+     * @param token       截止时间和取消标志
+     * @return 凹壳多边形
+     */
+    public Polygon polygon(MultiPoint multipPoint, Double area, CancellationToken token) {
+        TriCheckerAlpha checkerAlpha = checkerAlpha(area);
+        ConcaveHullIndexed cah = concaveHull(multipPoint, checkerAlpha);
+        return polygon(cah.getConcaveHullBFS(checkerAlpha, false, false, token));
+    }
+
+    /**
+     * 取出单个多边形结果
+     *
+     * @param hulls 凹壳结果
+     * @return 凹壳多边形，结果不是单个多边形时返回null
+     */
+    private Polygon polygon(Collection<Geometry> hulls) {
+        //结果只会有一个简单多边形 不会含有洞的情况
+        //返回值
+        Polygon result = null;
+        if (CollUtil.isNotEmpty(hulls) && hulls.size() == 1) {
+            for (Geometry hull : hulls) {
+                if (config.POLYGON.equals(hull.getGeometryType())) {
+                    result = (Polygon) hull;
+                } else {
+                    log.error("凹壳转换多边形异常");
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 点是否在矩形区域内
+     *
+     * @param pointLat 点纬度
+     * @param pointLon 点经度
+     * @param leftLon  左上角经度
+     * @param leftLat  左上角纬度
+     * @param rightLon 右下角经度
+     * @param rightLat 右下角纬度
+     * @return
+     */
+    public boolean inRectangle(double pointLon, double pointLat, double leftLon, double leftLat, double rightLon, double rightLat) {
+        return new Envelope(new Coordinate(leftLon, leftLat), new Coordinate(rightLon, rightLat)).contains(pointLon, pointLat);
+    }
+
+    /**
+     * 判断点是否在圆内
+     *
+     * @param pointLon        点经度
+     * @param pointLat        点纬度
+     * @param centerCircleLon 圆心经度
+     * @param centerCircleLat 圆心纬度
+     * @param radius          圆半径(米)
+     * @return
+     */
+    public boolean inCircle(double pointLon, double pointLat, double centerCircleLon, double centerCircleLat, double radius) {
+        return pointDistance(pointLon, pointLat, centerCircleLon, centerCircleLat) < radius;
+    }
+
+    /**
+     * 创建圆形围栏，同一个圆需要判断大量点时使用
+     *
+     * @param centerCircleLon 圆心经度
+     * @param centerCircleLat 圆心纬度
+     * @param radius          圆半径(米)
+     * @return 圆形围栏
+     */
+    public CircleFence circleFence(double centerCircleLon, double centerCircleLat, double radius) {
+        return new CircleFence(centerCircleLon, centerCircleLat, radius);
+    }
+
+    /**
+     * 判断点是否在圆形围栏内，结果与inCircle(double, double, double, double, double)一致
+     *
+     * @param pointLon    点经度
+     * @param pointLat    点纬度
+     * @param circleFence 圆形围栏
+     * @return
+     */
+    public boolean inCircle(double pointLon, double pointLat, CircleFence circleFence) {
+        if (Math.abs(pointLat) <= 90) {//外包范围只对合法纬度成立
+            if (Math.abs(pointLat - circleFence.centerLat) > circleFence.latTolerance) {
+                return false;
+            }
+            double dLon = Math.abs(pointLon - circleFence.centerLon);
+            if (dLon > 180) {
+                dLon %= 360;
+                if (dLon > 180) {
+                    dLon = 360 - dLon;
+                }
+            }
+            if (dLon > circleFence.lonTolerance) {
+                return false;
+            }
+        }
+        double radLat1 = rad(pointLat);
+        double sinA = Math.sin((radLat1 - circleFence.radLat) / 2);
+        double sinB = Math.sin((rad(pointLon) - circleFence.radLon) / 2);
+        double h = sinA * sinA + Math.cos(radLat1) * circleFence.cosLat * (sinB * sinB);
+        if (Math.abs(h - circleFence.hav) <= circleFence.hav * 1e-9) {
+            //阈值附近受浮点误差影响，按原始算法计算
+            return distance(radLat1, rad(pointLon), Math.cos(radLat1), circleFence.radLat, circleFence.radLon, circleFence.cosLat) < circleFence.radius;
+        }
+        return h < circleFence.hav;
+    }
+
+    /**
+     * 批量判断点是否在矩形区域内，判断过程不创建对象
+     *
+     * @param pointLons 点经度数组
+     * @param pointLats 点纬度数组
+     * @param off       起始下标
+     * @param len       点数量
+     * @param leftLon   左上角经度
+     * @param leftLat   左上角纬度
+     * @param rightLon  右下角经度
+     * @param rightLat  右下角纬度
+     * @param result    结果数组，与点数组下标一一对应
+     * @return 矩形内的点数量
+     */
+    public int inRectangle(double[] pointLons, double[] pointLats, int off, int len, double leftLon, double leftLat, double rightLon, double rightLat, boolean[] result) {
+        double minLon = Math.min(leftLon, rightLon), maxLon = Math.max(leftLon, rightLon);
+        double minLat = Math.min(leftLat, rightLat), maxLat = Math.max(leftLat, rightLat);
+        int count = 0;
+        for (int i = off, end = off + len; i < end; i++) {
+            double lon = pointLons[i], lat = pointLats[i];
+            boolean in = lon >= minLon && lon <= maxLon && lat >= minLat && lat <= maxLat;
+            result[i] = in;
+            if (in) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 批量判断点是否在矩形区域内，判断过程不创建对象
+     *
+     * @param pointLons 点经度数组
+     * @param pointLats 点纬度数组
+     * @param off       起始下标
+     * @param len       点数量
+     * @param leftLon   左上角经度
+     * @param leftLat   左上角纬度
+     * @param rightLon  右下角经度
+     * @param rightLat  右下角纬度
+     * @param result    结果位图，与点数组下标一一对应，调用方需预先分配足够大小
+     * @return 矩形内的点数量
+     */
+    public int inRectangle(double[] pointLons, double[] pointLats, int off, int len, double leftLon, double leftLat, double rightLon, double rightLat, BitSet result) {
+        double minLon = Math.min(leftLon, rightLon), maxLon = Math.max(leftLon, rightLon);
+        double minLat = Math.min(leftLat, rightLat), maxLat = Math.max(leftLat, rightLat);
+        int count = 0;
+        for (int i = off, end = off + len; i < end; i++) {
+            double lon = pointLons[i], lat = pointLats[i];
+            boolean in = lon >= minLon && lon <= maxLon && lat >= minLat && lat <= maxLat;
+            result.set(i, in);
+            if (in) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 批量判断点是否在圆内，结果与inCircle逐点判断一致，判断过程不创建对象
+     *
+     * @param pointLons       点经度数组
+     * @param pointLats       点纬度数组
+     * @param off             起始下标
+     * @param len             点数量
+     * @param centerCircleLon 圆心经度
+     * @param centerCircleLat 圆心纬度
+     * @param radius          圆半径(米)
+     * @param result          结果数组，与点数组下标一一对应
+     * @return 圆内的点数量
+     */
+    public int inCircle(double[] pointLons, double[] pointLats, int off, int len, double centerCircleLon, double centerCircleLat, double radius, boolean[] result) {
+        return inCircle(pointLons, pointLats, off, len, circleFence(centerCircleLon, centerCircleLat, radius), result);
+    }
+
+    /**
+     * 批量判断点是否在圆形围栏内，判断过程不创建对象
+     *
+     * @param pointLons   点经度数组
+     * @param pointLats   点纬度数组
+     * @param off         起始下标
+     * @param len         点数量
+     * @param circleFence 圆形围栏
+     * @param result      结果数组，与点数组下标一一对应
+     * @return 圆内的点数量
+     */
+    public int inCircle(double[] pointLons, double[] pointLats, int off, int len, CircleFence circleFence, boolean[] result) {
+        int count = 0;
+        for (int i = off, end = off + len; i < end; i++) {
+            boolean in = inCircle(pointLons[i], pointLats[i], circleFence);
+            result[i] = in;
+            if (in) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 批量判断点是否在圆内，结果与inCircle逐点判断一致，判断过程不创建对象
+     *
+     * @param pointLons       点经度数组
+     * @param pointLats       点纬度数组
+     * @param off             起始下标
+     * @param len             点数量
+     * @param centerCircleLon 圆心经度
+     * @param centerCircleLat 圆心纬度
+     * @param radius          圆半径(米)
+     * @param result          结果位图，与点数组下标一一对应，调用方需预先分配足够大小
+     * @return 圆内的点数量
+     */
+    public int inCircle(double[] pointLons, double[] pointLats, int off, int len, double centerCircleLon, double centerCircleLat, double radius, BitSet result) {
+        return inCircle(pointLons, pointLats, off, len, circleFence(centerCircleLon, centerCircleLat, radius), result);
+    }
+
+    /**
+     * 批量判断点是否在圆形围栏内，判断过程不创建对象
+     *
+     * @param pointLons   点经度数组
+     * @param pointLats   点纬度数组
+     * @param off         起始下标
+     * @param len         点数量
+     * @param circleFence 圆形围栏
+     * @param result      结果位图，与点数组下标一一对应，调用方需预先分配足够大小
+     * @return 圆内的点数量
+     */
+    public int inCircle(double[] pointLons, double[] pointLats, int off, int len, CircleFence circleFence, BitSet result) {
+        int count = 0;
+        for (int i = off, end = off + len; i < end; i++) {
+            boolean in = inCircle(pointLons[i], pointLats[i], circleFence);
+            result.set(i, in);
+            if (in) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 点是否在几何图形内
+     *
+     * @param point
      * @param geometry
      * @return
      */
@@ -433,6 +1771,131 @@ public class JtsUtil implements AutoCloseable {
         return geometry.contains(point);
     }
 
+    /**
+     * 注册电子围栏，已存在相同ID的围栏会被替换
+     * <p>
+     * 注册时构建好点定位索引，之后按围栏ID判断点是否在围栏内，不再每次都遍历多边形所有边
+     *
+     * @param fenceId  围栏ID
+     * @param geometry 围栏图形
+     */
+    public void addFence(String fenceId, Geometry geometry) {
+        config.fenceMap.put(fenceId, new Fence(fenceId, geometry));
+        config.fenceVersion.incrementAndGet();
+    }
+
+    /**
+     * 移除电子围栏
+     *
+     * @param fenceId 围栏ID
+     */
+    public void removeFence(String fenceId) {
+        config.fenceMap.remove(fenceId);
+        config.fenceVersion.incrementAndGet();
+    }
+
+    /**
+     * 移除所有电子围栏
+     */
+    public void clearFence() {
+        config.fenceMap.clear();
+        config.fenceVersion.incrementAndGet();
+    }
+
+    /**
+     * 已注册的电子围栏数量
+     *
+     * @return 围栏数量
+     */
+    public int fenceSize() {
+        return config.fenceMap.size();
+    }
+
+    /**
+     * 点是否在已注册的电子围栏内
+     *
+     * @param point   点
+     * @param fenceId 围栏ID
+     * @return
+     */
+    public boolean inGeometry(Point point, String fenceId) {
+        return inGeometry(point.getX(), point.getY(), fenceId);
+    }
+
+    /**
+     * 点是否在已注册的电子围栏内
+     *
+     * @param pointLon 点经度
+     * @param pointLat 点纬度
+     * @param fenceId  围栏ID
+     * @return
+     */
+    public boolean inGeometry(double pointLon, double pointLat, String fenceId) {
+        Fence fence = config.fenceMap.get(fenceId);
+        if (fence == null) {
+            throw new IllegalArgumentException("电子围栏不存在：" + fenceId);
+        }
+        return fence.contains(pointLon, pointLat);
+    }
+
+    /**
+     * 查找包含该点的所有电子围栏
+     * <p>
+     * 先用围栏外包矩形的STRtree索引筛选候选围栏，再逐个精确判断，查询耗时随围栏数量对数增长
+     * <p>
+     * 围栏有增删后第一次查询会重建索引
+     *
+     * @param pointLon 点经度
+     * @param pointLat 点纬度
+     * @return 包含该点的围栏ID，没有则返回空集合
+     */
+    public List<String> findContainingFences(double pointLon, double pointLat) {
+        List<String> fenceIds = new ArrayList<>();
+        getFenceIndex().tree.query(new Envelope(pointLon, pointLon, pointLat, pointLat), item -> {
+            Fence fence = (Fence) item;
+            if (fence.contains(pointLon, pointLat)) {
+                fenceIds.add(fence.id);
+            }
+        });
+        return fenceIds;
+    }
+
+    /**
+     * 查找包含该点的所有电子围栏
+     *
+     * @param point 点
+     * @return 包含该点的围栏ID，没有则返回空集合
+     */
+    public List<String> findContainingFences(Point point) {
+        return findContainingFences(point.getX(), point.getY());
+    }
+
+    /**
+     * 获取与当前围栏版本一致的空间索引，不一致则重建
+     *
+     * @return 围栏空间索引
+     */
+    private FenceIndex getFenceIndex() {
+        FenceIndex fenceIndex = config.fenceIndex;
+        if (fenceIndex != null && fenceIndex.version == config.fenceVersion.get()) {
+            return fenceIndex;
+        }
+        synchronized (config) {
+            fenceIndex = config.fenceIndex;
+            long version = config.fenceVersion.get();
+            if (fenceIndex == null || fenceIndex.version != version) {
+                STRtree tree = new STRtree();
+                for (Fence fence : config.fenceMap.values()) {
+                    tree.insert(fence.geometry.getEnvelopeInternal(), fence);
+                }
+                tree.build();
+                fenceIndex = new FenceIndex(version, tree);
+                config.fenceIndex = fenceIndex;
+            }
+        }
+        return fenceIndex;
+    }
+
     /**
      * 计算球面中点与点的距离
      *
@@ -445,9 +1908,39 @@ public class JtsUtil implements AutoCloseable {
     public double pointDistance(double lon1, double lat1, double lon2, double lat2) {
         double radLat1 = rad(lat1);
         double radLat2 = rad(lat2);
-        double a = radLat1 - radLat2;
-        double b = rad(lon1) - rad(lon2);
-        double s = 2 * Math.asin(Math.sqrt(Math.pow(Math.sin(a / 2), 2) + Math.cos(radLat1) * Math.cos(radLat2) * Math.pow(Math.sin(b / 2), 2)));
+        return distance(radLat1, rad(lon1), Math.cos(radLat1), radLat2, rad(lon2), Math.cos(radLat2));
+    }
+
+    /**
+     * 批量计算点到某个点的球面距离，计算过程不创建对象
+     *
+     * @param lons   点经度数组
+     * @param lats   点纬度数组
+     * @param off    起始下标
+     * @param len    点数量
+     * @param lon2   目标点经度
+     * @param lat2   目标点纬度
+     * @param result 距离(米)，与点数组下标一一对应
+     */
+    public void pointDistance(double[] lons, double[] lats, int off, int len, double lon2, double lat2, double[] result) {
+        double radLat2 = rad(lat2);
+        double radLon2 = rad(lon2);
+        double cosLat2 = Math.cos(radLat2);
+        for (int i = off, end = off + len; i < end; i++) {
+            double radLat1 = rad(lats[i]);
+            result[i] = distance(radLat1, rad(lons[i]), Math.cos(radLat1), radLat2, radLon2, cosLat2);
+        }
+    }
+
+    /**
+     * 球面距离，参数为弧度，纬度余弦由调用方传入以便批量计算时复用
+     *
+     * @return 距离(米)，保留4位小数
+     */
+    private double distance(double radLat1, double radLon1, double cosLat1, double radLat2, double radLon2, double cosLat2) {
+        double sinA = Math.sin((radLat1 - radLat2) / 2);
+        double sinB = Math.sin((radLon1 - radLon2) / 2);
+        double s = 2 * Math.asin(Math.sqrt(sinA * sinA + cosLat1 * cosLat2 * (sinB * sinB)));
         s = s * 6378137;// 地球半径
         s = round(s * 10000) / 10000;
         return s;
@@ -488,6 +1981,253 @@ public class JtsUtil implements AutoCloseable {
         return area;
     }
 
+    /**
+     * 批量计算面积的结果回调
+     *
+     * @param <K> 记录ID类型
+     */
+    @FunctionalInterface
+    public interface AreaCallback<K> {
+        /**
+         * 一条记录计算完成
+         * <p>
+         * 会在线程池的多个线程中并发调用，回调顺序与输入顺序无关
+         *
+         * @param id    记录ID
+         * @param area  面积(平方米)，出错时为NaN
+         * @param error 解析或计算出错时的异常，成功时为null
+         */
+        void accept(K id, double area, Exception error);
+    }
+
+    /**
+     * 批量计算面积
+     * <p>
+     * 在当前线程逐条读取输入，解析和计算交给线程池；同时处理的记录数达到上限时暂停读取，全部回调完成后返回
+     *
+     * @param inputs   输入，key为记录ID，value为WKT字符串或WKB字节数组
+     * @param callback 结果回调，必须线程安全
+     * @param <K>      记录ID类型
+     * @return 处理的记录数
+     * @throws InterruptedException 等待时被中断，已提交的记录仍会继续处理并回调
+     * @throws RuntimeException     读取输入或线程池拒绝时的异常，抛出前已提交的记录全部回调完成
+     */
+    public <K> long geometryArea(Iterator<? extends Map.Entry<K, ?>> inputs, AreaCallback<K> callback) throws InterruptedException {
+        int permits = config.batchConcurrency > 0 ? config.batchConcurrency : config.forkJoinPool.getParallelism() * 4;
+        Semaphore semaphore = new Semaphore(permits);
+        long count = 0;
+        try {
+            while (inputs.hasNext()) {
+                Map.Entry<K, ?> input = inputs.next();
+                semaphore.acquire();
+                try {
+                    config.forkJoinPool.execute(() -> {
+                        try {
+                            computeArea(input.getKey(), input.getValue(), callback);
+                        } finally {
+                            semaphore.release();
+                        }
+                    });
+                } catch (RuntimeException e) {//线程池拒绝
+                    semaphore.release();
+                    throw e;
+                }
+                count++;
+            }
+        } catch (RuntimeException | Error e) {//读取输入或提交失败，等已提交的记录全部回调后再抛出
+            semaphore.acquireUninterruptibly(permits);
+            semaphore.release(permits);
+            throw e;
+        }
+        semaphore.acquire(permits);
+        semaphore.release(permits);
+        return count;
+    }
+
+    /**
+     * 批量计算面积
+     *
+     * @param inputs   输入，key为记录ID，value为WKT字符串或WKB字节数组
+     * @param callback 结果回调，必须线程安全
+     * @param <K>      记录ID类型
+     * @return 处理的记录数
+     * @throws InterruptedException 等待时被中断
+     * @see #geometryArea(Iterator, AreaCallback)
+     */
+    public <K> long geometryArea(Stream<? extends Map.Entry<K, ?>> inputs, AreaCallback<K> callback) throws InterruptedException {
+        return geometryArea(inputs.iterator(), callback);
+    }
+
+    private <K> void computeArea(K id, Object value, AreaCallback<K> callback) {
+        double area;
+        try {
+            Geometry geometry;
+            if (value instanceof String) {
+                geometry = parseWkt((String) value);
+            } else if (value instanceof byte[]) {
+                geometry = parseWkb((byte[]) value);
+            } else {
+                throw new IllegalArgumentException("不支持的输入类型：" + (value == null ? null : value.getClass().getName()));
+            }
+            area = geometryArea(geometry);
+        } catch (Exception e) {
+            notify(callback, id, Double.NaN, e);
+            return;
+        }
+        notify(callback, id, area, null);
+    }
+
+    private <K> void notify(AreaCallback<K> callback, K id, double area, Exception error) {
+        try {
+            callback.accept(id, area, error);
+        } catch (Exception e) {
+            log.error("[批量计算面积] 回调异常 id：{} {}", id, e.getMessage());
+        }
+    }
+
+    /**
+     * 并行计算任意几何图形面积
+     * <p>
+     * 各个环的面积分散到线程池中计算，再按geometryArea的顺序累加，结果与geometryArea完全相同
+     *
+     * @param geometry 几何图形
+     * @return 面积(平方米)
+     * @throws ParseException 带洞多边形面积计算异常
+     */
+    public double geometryAreaParallel(Geometry geometry) throws ParseException {
+        List<LineString> rings = new ArrayList<>();
+        collectRings(geometry, rings);
+        int[] offsets = new int[rings.size() + 1];//顶点数前缀和
+        for (int i = 0; i < rings.size(); i++) {
+            offsets[i + 1] = offsets[i] + rings.get(i).getNumPoints();
+        }
+        if (offsets[rings.size()] <= config.parallelThreshold) {
+            return geometryArea(geometry);
+        }
+        double[] ringAreas = new double[rings.size()];
+        config.forkJoinPool.invoke(new RingAreaTask(rings, offsets, ringAreas, 0, rings.size(), config.parallelThreshold, config.gaussProjector));
+        return reduceArea(geometry, ringAreas, new int[1]);
+    }
+
+    /**
+     * 按geometryArea的遍历顺序收集多边形的环，每个多边形先外环后内环
+     */
+    private void collectRings(Geometry geometry, List<LineString> rings) {
+        switch (geometry.getGeometryType().toUpperCase()) {
+            case "POLYGON":
+                collectRings((Polygon) geometry, rings);
+                break;
+            case "MULTIPOLYGON":
+                for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                    collectRings((Polygon) geometry.getGeometryN(i), rings);
+                }
+                break;
+            case "GEOMETRYCOLLECTION":
+                for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                    collectRings(geometry.getGeometryN(i), rings);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void collectRings(Polygon polygon, List<LineString> rings) {
+        rings.add(polygon.getExteriorRing());
+        for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+            rings.add(polygon.getInteriorRingN(i));
+        }
+    }
+
+    /**
+     * 用预先算好的环面积，按geometryArea的顺序累加
+     */
+    private double reduceArea(Geometry geometry, double[] ringAreas, int[] cursor) throws ParseException {
+        double area = 0.0;
+        switch (geometry.getGeometryType().toUpperCase()) {
+            case "POLYGON":
+                area = reducePolygonArea((Polygon) geometry, ringAreas, cursor);
+                break;
+            case "MULTIPOLYGON":
+                for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                    area += reducePolygonArea((Polygon) geometry.getGeometryN(i), ringAreas, cursor);
+                }
+                break;
+            case "GEOMETRYCOLLECTION":
+                for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                    area += reduceArea(geometry.getGeometryN(i), ringAreas, cursor);
+                }
+                break;
+            default:
+                break;
+        }
+        return area;
+    }
+
+    /**
+     * 与polygonArea的计算顺序一致
+     */
+    private double reducePolygonArea(Polygon polygon, double[] ringAreas, int[] cursor) throws ParseException {
+        double exteriorArea = ringAreas[cursor[0]++];
+        int interiorRingNum = polygon.getNumInteriorRing();
+        if (interiorRingNum == 0) {
+            return exteriorArea;
+        }
+        double interiorArea = 0.0;
+        for (int i = 0; i < interiorRingNum; i++) {
+            interiorArea += ringAreas[cursor[0]++];
+        }
+        double totalArea = 0.0;
+        totalArea += exteriorArea;
+        totalArea -= interiorArea;
+        if (totalArea <= 0) {
+            throw new ParseException("多边形面积计算异常：" + polygon.toText());
+        }
+        return totalArea;
+    }
+
+    /**
+     * 并行计算环面积，按顶点数二分
+     */
+    private static class RingAreaTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final List<LineString> rings;
+        private final int[] offsets;
+        private final double[] ringAreas;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final ThreadLocal<GaussProjector> gaussProjector;
+
+        private RingAreaTask(List<LineString> rings, int[] offsets, double[] ringAreas, int from, int to, int threshold, ThreadLocal<GaussProjector> gaussProjector) {
+            this.rings = rings;
+            this.offsets = offsets;
+            this.ringAreas = ringAreas;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.gaussProjector = gaussProjector;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1 || offsets[to] - offsets[from] <= threshold) {
+                GaussProjector projector = gaussProjector.get();
+                for (int i = from; i < to; i++) {
+                    ringAreas[i] = projector.ringArea(rings.get(i).getCoordinateSequence());
+                }
+                return;
+            }
+            //找到顶点数的中点
+            int half = offsets[from] + (offsets[to] - offsets[from]) / 2;
+            int mid = Arrays.binarySearch(offsets, from, to, half);
+            mid = mid < 0 ? -mid - 1 : mid;
+            mid = Math.max(from + 1, Math.min(to - 1, mid));
+            invokeAll(new RingAreaTask(rings, offsets, ringAreas, from, mid, threshold, gaussProjector),
+                    new RingAreaTask(rings, offsets, ringAreas, mid, to, threshold, gaussProjector));
+        }
+    }
+
     /**
      * 复杂多边形面积 会含有洞的情况
      *
@@ -522,11 +2262,7 @@ public class JtsUtil implements AutoCloseable {
      * 返回值 平方米
      */
     private double polygonAreaFromLineString(LineString lineString) {
-        Coordinate[] coordinates = lineString.getCoordinates();
-        for (int i = 0; i < coordinates.length; i++) {
-            coordinates[i] = wgs84ToGauss(coordinates[i]);
-        }
-        return Math.abs(Area.ofRing(coordinates));
+        return config.gaussProjector.get().ringArea(lineString.getCoordinateSequence());
     }
 
     private double rad(double d) {
@@ -0,0 +1,80 @@
+package sunyu.util;
+
+/**
+ * 农机作业轮廓缓存的命中统计，调用时刻的快照
+ *
+ * @author 孙宇
+ */
+public final class PolygonFarmCacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long expiredCount;
+    private final int size;
+    private final long weight;
+
+    PolygonFarmCacheStats(long hitCount, long missCount, long evictionCount, long expiredCount, int size, long weight) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.expiredCount = expiredCount;
+        this.size = size;
+        this.weight = weight;
+    }
+
+    /**
+     * @return 命中次数
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return 未命中次数，包括已过期的
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return 命中率，没有请求时为0
+     */
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 0 : (double) hitCount / requests;
+    }
+
+    /**
+     * @return 超过条数或权重上限被淘汰的条数
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return 超过存活时间被移除的条数
+     */
+    public long getExpiredCount() {
+        return expiredCount;
+    }
+
+    /**
+     * @return 当前缓存条数
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return 当前缓存权重，即结果字符串的字符数之和
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return "PolygonFarmCacheStats{命中=" + hitCount + ", 未命中=" + missCount + ", 淘汰=" + evictionCount + ", 过期=" + expiredCount
+                + ", 条数=" + size + ", 权重=" + weight + "}";
+    }
+}
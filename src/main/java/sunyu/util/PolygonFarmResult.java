@@ -0,0 +1,69 @@
+package sunyu.util;
+
+/**
+ * 异步计算农机作业轮廓的结果和耗时统计
+ *
+ * @author 孙宇
+ */
+public final class PolygonFarmResult {
+    private final String[] result;
+    private final int pointCount;
+    private final long queueWaitNanos;
+    private final long computeNanos;
+
+    PolygonFarmResult(String[] result, int pointCount, long queueWaitNanos, long computeNanos) {
+        this.result = result;
+        this.pointCount = pointCount;
+        this.queueWaitNanos = queueWaitNanos;
+        this.computeNanos = computeNanos;
+    }
+
+    /**
+     * 与polygonFarm的返回值相同
+     *
+     * @return [wktStr, googleStr]
+     */
+    public String[] getResult() {
+        return result;
+    }
+
+    /**
+     * @return 轮廓WKT，没有结果时为null
+     */
+    public String getWkt() {
+        return result[0];
+    }
+
+    /**
+     * @return 轮廓google字符串，结果不是单个多边形时为null
+     */
+    public String getGoogleStr() {
+        return result[1];
+    }
+
+    /**
+     * @return 输入点数
+     */
+    public int getPointCount() {
+        return pointCount;
+    }
+
+    /**
+     * @return 提交后在队列中等待的时间(纳秒)
+     */
+    public long getQueueWaitNanos() {
+        return queueWaitNanos;
+    }
+
+    /**
+     * @return 计算耗时(纳秒)
+     */
+    public long getComputeNanos() {
+        return computeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "PolygonFarmResult{点数=" + pointCount + ", 排队=" + queueWaitNanos / 1000000 + "ms, 计算=" + computeNanos / 1000000 + "ms}";
+    }
+}
@@ -0,0 +1,292 @@
+package sunyu.util;
+
+import org.locationtech.jts.geom.*;
+import org.locationtech.jts.io.ParseException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * TWKB(Tiny Well-known Binary)编解码
+ * <p>
+ * 坐标按精度取整后与前一个坐标做差，再用zigzag变长整数存储，同一个图形内的差值跨环、跨子图形连续计算
+ * <p>
+ * 只支持二维坐标，Z/M值会被丢弃；不写外包矩形、长度和ID列表
+ *
+ * @author 孙宇
+ * @see <a href="https://github.com/TWKB/Specification/blob/master/twkb.md">TWKB Specification</a>
+ */
+final class Twkb {
+    private static final int POINT = 1;
+    private static final int LINESTRING = 2;
+    private static final int POLYGON = 3;
+    private static final int MULTIPOINT = 4;
+    private static final int MULTILINESTRING = 5;
+    private static final int MULTIPOLYGON = 6;
+    private static final int GEOMETRYCOLLECTION = 7;
+    private static final int FLAG_EMPTY = 0x10;
+    private static final int MAX_PRECISION = 7;
+    private static final int MIN_PRECISION = -7;
+
+    private Twkb() {
+    }
+
+    /**
+     * 写入TWKB
+     *
+     * @param geometry  几何图形
+     * @param precision 小数位数，-7~7，负数表示取整到10的倍数
+     * @param buffer    输出，从当前position开始写
+     * @throws java.nio.BufferOverflowException buffer剩余空间不足
+     */
+    static void write(Geometry geometry, int precision, ByteBuffer buffer) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("TWKB精度范围为" + MIN_PRECISION + "~" + MAX_PRECISION);
+        }
+        write(geometry, precision, Math.pow(10, precision), buffer);
+    }
+
+    private static void write(Geometry geometry, int precision, double scale, ByteBuffer buffer) {
+        int type = type(geometry);
+        buffer.put((byte) (type | (zigzag(precision) << 4)));
+        if (geometry.isEmpty()) {
+            buffer.put((byte) FLAG_EMPTY);
+            return;
+        }
+        buffer.put((byte) 0);
+        long[] prev = new long[2];
+        switch (type) {
+            case POINT:
+                writeCoordinates(((Point) geometry).getCoordinateSequence(), scale, prev, buffer);
+                break;
+            case LINESTRING:
+                writeLineString((LineString) geometry, scale, prev, buffer);
+                break;
+            case POLYGON:
+                writePolygon((Polygon) geometry, scale, prev, buffer);
+                break;
+            case MULTIPOINT: {
+                //TWKB的多点每个成员固定一个坐标，无法表示空点，跳过空成员
+                int count = 0;
+                for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                    if (!geometry.getGeometryN(i).isEmpty()) {
+                        count++;
+                    }
+                }
+                writeVarint(count, buffer);
+                for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                    Point part = (Point) geometry.getGeometryN(i);
+                    if (!part.isEmpty()) {
+                        writeCoordinates(part.getCoordinateSequence(), scale, prev, buffer);
+                    }
+                }
+                break;
+            }
+            case MULTILINESTRING:
+            case MULTIPOLYGON:
+                writeVarint(geometry.getNumGeometries(), buffer);
+                for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                    Geometry part = geometry.getGeometryN(i);
+                    if (type == MULTILINESTRING) {
+                        writeLineString((LineString) part, scale, prev, buffer);
+                    } else {
+                        writePolygon((Polygon) part, scale, prev, buffer);
+                    }
+                }
+                break;
+            default:
+                writeVarint(geometry.getNumGeometries(), buffer);
+                for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                    write(geometry.getGeometryN(i), precision, scale, buffer);
+                }
+        }
+    }
+
+    private static int type(Geometry geometry) {
+        if (geometry instanceof Point) {
+            return POINT;
+        } else if (geometry instanceof LineString) {
+            return LINESTRING;
+        } else if (geometry instanceof Polygon) {
+            return POLYGON;
+        } else if (geometry instanceof MultiPoint) {
+            return MULTIPOINT;
+        } else if (geometry instanceof MultiLineString) {
+            return MULTILINESTRING;
+        } else if (geometry instanceof MultiPolygon) {
+            return MULTIPOLYGON;
+        }
+        return GEOMETRYCOLLECTION;
+    }
+
+    private static void writeLineString(LineString lineString, double scale, long[] prev, ByteBuffer buffer) {
+        CoordinateSequence sequence = lineString.getCoordinateSequence();
+        writeVarint(sequence.size(), buffer);
+        writeCoordinates(sequence, scale, prev, buffer);
+    }
+
+    private static void writePolygon(Polygon polygon, double scale, long[] prev, ByteBuffer buffer) {
+        if (polygon.isEmpty()) {
+            writeVarint(0, buffer);
+            return;
+        }
+        writeVarint(polygon.getNumInteriorRing() + 1, buffer);
+        writeLineString(polygon.getExteriorRing(), scale, prev, buffer);
+        for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+            writeLineString(polygon.getInteriorRingN(i), scale, prev, buffer);
+        }
+    }
+
+    private static void writeCoordinates(CoordinateSequence sequence, double scale, long[] prev, ByteBuffer buffer) {
+        for (int i = 0; i < sequence.size(); i++) {
+            long x = Math.round(sequence.getX(i) * scale);
+            long y = Math.round(sequence.getY(i) * scale);
+            writeVarint(zigzag(x - prev[0]), buffer);
+            writeVarint(zigzag(y - prev[1]), buffer);
+            prev[0] = x;
+            prev[1] = y;
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(long value, ByteBuffer buffer) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * 读取TWKB
+     *
+     * @param buffer          输入，从当前position开始读，读完后position指向图形末尾
+     * @param geometryFactory 图形工厂
+     * @return 几何图形
+     * @throws ParseException 格式错误或数据不完整
+     */
+    static Geometry read(ByteBuffer buffer, GeometryFactory geometryFactory) throws ParseException {
+        try {
+            return readGeometry(buffer, geometryFactory);
+        } catch (BufferUnderflowException e) {
+            throw new ParseException("TWKB数据不完整");
+        }
+    }
+
+    private static Geometry readGeometry(ByteBuffer buffer, GeometryFactory geometryFactory) throws ParseException {
+        int header = buffer.get() & 0xFF;
+        int type = header & 0x0F;
+        double scale = Math.pow(10, unzigzag(header >>> 4));
+        int metadata = buffer.get() & 0xFF;
+        if ((metadata & 0x0F) != 0) {
+            throw new ParseException("不支持的TWKB元数据：" + metadata);
+        }
+        boolean empty = (metadata & FLAG_EMPTY) != 0;
+        long[] prev = new long[2];
+        switch (type) {
+            case POINT:
+                return empty ? geometryFactory.createPoint() : geometryFactory.createPoint(readCoordinates(1, scale, prev, buffer, geometryFactory));
+            case LINESTRING:
+                return empty ? geometryFactory.createLineString() : readLineString(scale, prev, buffer, geometryFactory);
+            case POLYGON:
+                return empty ? geometryFactory.createPolygon() : readPolygon(scale, prev, buffer, geometryFactory);
+            case MULTIPOINT: {
+                if (empty) {
+                    return geometryFactory.createMultiPoint();
+                }
+                Point[] points = new Point[readCount(buffer)];
+                for (int i = 0; i < points.length; i++) {
+                    points[i] = geometryFactory.createPoint(readCoordinates(1, scale, prev, buffer, geometryFactory));
+                }
+                return geometryFactory.createMultiPoint(points);
+            }
+            case MULTILINESTRING: {
+                if (empty) {
+                    return geometryFactory.createMultiLineString();
+                }
+                LineString[] lineStrings = new LineString[readCount(buffer)];
+                for (int i = 0; i < lineStrings.length; i++) {
+                    lineStrings[i] = readLineString(scale, prev, buffer, geometryFactory);
+                }
+                return geometryFactory.createMultiLineString(lineStrings);
+            }
+            case MULTIPOLYGON: {
+                if (empty) {
+                    return geometryFactory.createMultiPolygon();
+                }
+                Polygon[] polygons = new Polygon[readCount(buffer)];
+                for (int i = 0; i < polygons.length; i++) {
+                    polygons[i] = readPolygon(scale, prev, buffer, geometryFactory);
+                }
+                return geometryFactory.createMultiPolygon(polygons);
+            }
+            case GEOMETRYCOLLECTION: {
+                if (empty) {
+                    return geometryFactory.createGeometryCollection();
+                }
+                Geometry[] geometries = new Geometry[readCount(buffer)];
+                for (int i = 0; i < geometries.length; i++) {
+                    geometries[i] = readGeometry(buffer, geometryFactory);
+                }
+                return geometryFactory.createGeometryCollection(geometries);
+            }
+            default:
+                throw new ParseException("不支持的TWKB类型：" + type);
+        }
+    }
+
+    private static LineString readLineString(double scale, long[] prev, ByteBuffer buffer, GeometryFactory geometryFactory) throws ParseException {
+        return geometryFactory.createLineString(readCoordinates(readCount(buffer), scale, prev, buffer, geometryFactory));
+    }
+
+    private static Polygon readPolygon(double scale, long[] prev, ByteBuffer buffer, GeometryFactory geometryFactory) throws ParseException {
+        int rings = readCount(buffer);
+        if (rings == 0) {
+            return geometryFactory.createPolygon();
+        }
+        LinearRing shell = geometryFactory.createLinearRing(readCoordinates(readCount(buffer), scale, prev, buffer, geometryFactory));
+        LinearRing[] holes = new LinearRing[rings - 1];
+        for (int i = 0; i < holes.length; i++) {
+            holes[i] = geometryFactory.createLinearRing(readCoordinates(readCount(buffer), scale, prev, buffer, geometryFactory));
+        }
+        return geometryFactory.createPolygon(shell, holes);
+    }
+
+    private static CoordinateSequence readCoordinates(int size, double scale, long[] prev, ByteBuffer buffer, GeometryFactory geometryFactory) {
+        CoordinateSequence sequence = geometryFactory.getCoordinateSequenceFactory().create(size, 2);
+        for (int i = 0; i < size; i++) {
+            prev[0] += unzigzag(readVarint(buffer));
+            prev[1] += unzigzag(readVarint(buffer));
+            sequence.setOrdinate(i, 0, prev[0] / scale);
+            sequence.setOrdinate(i, 1, prev[1] / scale);
+        }
+        return sequence;
+    }
+
+    private static int readCount(ByteBuffer buffer) throws ParseException {
+        long count = readVarint(buffer);
+        if (count > buffer.remaining()) {//每个元素至少占一个字节
+            throw new ParseException("TWKB数量错误：" + count);
+        }
+        return (int) count;
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0 && shift < 64);
+        return value;
+    }
+}
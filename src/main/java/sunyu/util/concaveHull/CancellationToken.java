@@ -0,0 +1,90 @@
+package sunyu.util.concaveHull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline and cancellation flag of a concave hull computation
+ * <p>
+ * The digging loop polls {@link #isExpired()} every few hundred iterations, so the latency of a cancel or an expired deadline is well below a millisecond.
+ * When it fires, {@link ConcaveHullIndexed#getConcaveHullBFS(TriangleChecker, boolean, boolean, CancellationToken)} stops digging
+ * and returns the hulls as far as they have been dug, which are valid but less concave.
+ * The triangulation itself is not interruptible.
+ * <p>
+ * {@link #cancel()} may be called from any thread.
+ *
+ * @author 孙宇
+ */
+public final class CancellationToken {
+    private final boolean hasDeadline;
+    private final long deadline; // System.nanoTime() based
+    private volatile boolean cancelled = false;
+
+    private CancellationToken(boolean hasDeadline, long deadline) {
+        this.hasDeadline = hasDeadline;
+        this.deadline = deadline;
+    }
+
+    /**
+     * a token without deadline, expires only when cancelled
+     *
+     * @return token
+     */
+    public static CancellationToken none() {
+        return new CancellationToken(false, 0L);
+    }
+
+    /**
+     * a token expiring after the given time from now
+     *
+     * @param timeout time out
+     * @param unit    unit of time out
+     * @return token
+     */
+    public static CancellationToken timeout(long timeout, TimeUnit unit) {
+        return new CancellationToken(true, System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * a token expiring at the given System.nanoTime() value
+     *
+     * @param deadlineNanos deadline, compared with System.nanoTime()
+     * @return token
+     */
+    public static CancellationToken deadline(long deadlineNanos) {
+        return new CancellationToken(true, deadlineNanos);
+    }
+
+    /**
+     * cancel the computation
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return true if {@link #cancel()} has been called
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return true if cancelled or the deadline has passed
+     */
+    public boolean isExpired() {
+        return cancelled || (hasDeadline && System.nanoTime() - deadline >= 0);
+    }
+
+    /**
+     * @return nanoseconds left until the deadline, 0 if expired, Long.MAX_VALUE if there is no deadline
+     */
+    public long remainingNanos() {
+        if (cancelled) {
+            return 0L;
+        }
+        if (!hasDeadline) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0L, deadline - System.nanoTime());
+    }
+}
@@ -0,0 +1,790 @@
+package sunyu.util.concaveHull;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.triangulate.DelaunayTriangulationBuilder;
+import org.locationtech.jts.triangulate.quadedge.QuadEdge;
+import org.locationtech.jts.triangulate.quadedge.Vertex;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Index based implementation of {@link ConcaveHullJTS#getConcaveHullBFS}
+ * <p>
+ * The triangulation is stored as flat half-edge arrays: half-edge h goes from triangles[h] to triangles[next(h)] with its triangle on the left,
+ * halfedges[h] is the opposite half-edge, or -1 when there is no triangle on the other side.
+ * Each boundary node keeps the half-edge of its outgoing boundary edge, so the apex of the triangle to dig is found in O(1) without any lookup.
+ * The boundary is kept as int prev/next arrays over a node pool,
+ * the candidate edges in an indexed binary max-heap (same ordering as HullEdgeCir: length, then start coordinate, then end coordinate),
+ * and "on boundary" as a vertex stamp array.
+ * <p>
+ * Built from the JTS triangulation (the default) the digging order, anchors and split semantics are the same as the original engine, so the output is identical.
+ * Built with {@link #delaunator(Geometry)} the triangulation is computed by a sweep-hull algorithm, which is much faster on large point sets;
+ * the result is the same for points in general position, but may differ slightly where 4 or more points are co-circular (e.g. on a regular grid),
+ * since the Delaunay triangulation is not unique there.
+ * <p>
+ * An instance keeps its work arrays between calls and is not thread safe;
+ * {@link #getConcaveHullBFS(TriangleChecker, boolean, CancellationToken, ForkJoinPool)} digs the split parts concurrently, each task with its own work arrays.
+ *
+ * @author 孙宇
+ */
+public class ConcaveHullIndexed {
+    private static final int CHECK_MASK = 255; // poll the cancellation token every 256 iterations
+    // outcomes of digHull
+    private static final int DONE = 0;
+    private static final int COLLAPSED = 1;
+    private static final int SPLIT = 2;
+    private static final int EXPIRED = 3;
+
+    final Coordinate[] coords; // vertex index -> coordinate
+    final int[] triangles; // half-edge -> start vertex, 3 per triangle, CCW
+    final int[] halfedges; // half-edge -> opposite half-edge, -1 if none
+    final int[] initialHull; // initial hull as vertex indices, CCW, not closed; the last one is the anchor
+    final int[] initialEdges; // half-edge of each initial hull edge initialHull[i] -> initialHull[i + 1]
+    final GeometryFactory gf;
+
+    // node pool
+    private int[] nodeVert = new int[0];
+    private int[] nodeEdge = new int[0];
+    private int[] prev = new int[0];
+    private int[] next = new int[0];
+    private double[] metric = new double[0];
+    private int[] heapPos = new int[0];
+    private int nodeCount = 0;
+    // heap of nodes, each node standing for the edge node -> next[node]
+    private int[] heap = new int[0];
+    private int heapSize = 0;
+    // vertex -> node on the current hull, valid when vertStamp == stamp
+    private final int[] vertNode;
+    private final int[] vertStamp;
+    private int stamp = 0;
+    private int iterations = 0;
+    // result of digHull
+    private int digAnchor;
+    private int splitAnchor;
+
+    /**
+     * build from a point set, using the JTS Delaunay triangulation
+     *
+     * @param geom input geometry
+     */
+    public ConcaveHullIndexed(Geometry geom) {
+        this(new ConcaveHullJTS(geom));
+    }
+
+    /**
+     * build from the triangulation of an existing ConcaveHullJTS
+     *
+     * @param source source engine
+     */
+    public ConcaveHullIndexed(ConcaveHullJTS source) {
+        this.gf = source.gf;
+        Collection<?> edges = source.sd.getEdges();
+        Map<Coordinate, Integer> index = new IdentityHashMap<Coordinate, Integer>(edges.size()); // vertices of the subdivision share their Coordinate objects
+        List<Coordinate> coordList = new ArrayList<Coordinate>(edges.size() / 2);
+        Map<QuadEdge, Integer> edgeIndex = new IdentityHashMap<QuadEdge, Integer>(edges.size() * 2);
+        // every directed edge belongs to exactly one face (frame triangles included), number them face by face
+        this.triangles = new int[edges.size() * 2];
+        this.halfedges = new int[edges.size() * 2];
+        int t = 0;
+        for (Object o : edges) {
+            QuadEdge qe = (QuadEdge) o;
+            for (int k = 0; k < 2; k++) {
+                QuadEdge e = k == 0 ? qe : qe.sym();
+                if (edgeIndex.containsKey(e)) {
+                    continue;
+                }
+                QuadEdge e1 = e.lNext();
+                QuadEdge e2 = e1.lNext();
+                if (e2.lNext() != e) {
+                    throw new IllegalStateException("face of the subdivision is not a triangle");
+                }
+                edgeIndex.put(e, t);
+                edgeIndex.put(e1, t + 1);
+                edgeIndex.put(e2, t + 2);
+                triangles[t] = vertexIndex(e.orig(), index, coordList);
+                triangles[t + 1] = vertexIndex(e1.orig(), index, coordList);
+                triangles[t + 2] = vertexIndex(e2.orig(), index, coordList);
+                t += 3;
+            }
+        }
+        for (Map.Entry<QuadEdge, Integer> entry : edgeIndex.entrySet()) {
+            halfedges[entry.getValue()] = edgeIndex.get(entry.getKey().sym());
+        }
+        this.coords = coordList.toArray(new Coordinate[0]);
+        // same as generateHullEdgeRep: skip the first coordinate of the closed ring, the last one is the anchor
+        LinkedList<Coordinate> hullDT = source.hullDT;
+        this.initialHull = new int[hullDT.size() - 1];
+        Iterator<Coordinate> iter = hullDT.listIterator(1);
+        for (int i = 0; iter.hasNext(); i++) {
+            initialHull[i] = index.get(iter.next());
+        }
+        this.initialEdges = hullEdges(coords.length, triangles, initialHull);
+        this.vertNode = new int[coords.length];
+        this.vertStamp = new int[coords.length];
+    }
+
+    /**
+     * build from an already numbered triangulation
+     *
+     * @param coords       vertex coordinates
+     * @param triangles    half-edge start vertices, 3 per triangle, CCW
+     * @param halfedges    opposite half-edges, -1 if none
+     * @param initialHull  initial hull, CCW, not closed; the last vertex becomes the anchor
+     * @param initialEdges half-edge of each initial hull edge
+     * @param gf           geometry factory
+     */
+    ConcaveHullIndexed(Coordinate[] coords, int[] triangles, int[] halfedges, int[] initialHull, int[] initialEdges, GeometryFactory gf) {
+        this.coords = coords;
+        this.triangles = triangles;
+        this.halfedges = halfedges;
+        this.initialHull = initialHull;
+        this.initialEdges = initialEdges;
+        this.gf = gf;
+        this.vertNode = new int[coords.length];
+        this.vertStamp = new int[coords.length];
+    }
+
+    /**
+     * build from a point set, using the sweep-hull Delaunay triangulation (flat arrays, no QuadEdge objects)
+     * <p>
+     * Duplicate points are removed first. The initial hull is the convex hull, anchored at the lowest (then leftmost) vertex like the JTS one.
+     *
+     * @param geom input geometry
+     * @return concave hull engine
+     */
+    public static ConcaveHullIndexed delaunator(Geometry geom) {
+        Coordinate[] coords = DelaunayTriangulationBuilder.unique(geom.getCoordinates()).toCoordinateArray();
+        double[] xy = new double[coords.length * 2];
+        for (int i = 0; i < coords.length; i++) {
+            xy[2 * i] = coords[i].x;
+            xy[2 * i + 1] = coords[i].y;
+        }
+        Delaunator delaunator = new Delaunator(xy);
+        int[] triangles = delaunator.triangles;
+        int[] halfedges = delaunator.halfedges;
+        // half-edges without an opposite form the convex hull, CCW since the triangles are
+        int[] hullEdgeOf = new int[coords.length];
+        Arrays.fill(hullEdgeOf, -1);
+        int base = -1;
+        for (int h = 0; h < halfedges.length; h++) {
+            if (halfedges[h] < 0) {
+                int v = triangles[h];
+                hullEdgeOf[v] = h;
+                if (base < 0 || coords[v].y < coords[base].y || (coords[v].y == coords[base].y && coords[v].x < coords[base].x)) {
+                    base = v;
+                }
+            }
+        }
+        int[] hull = new int[0];
+        int[] edges = new int[0];
+        if (base >= 0) {
+            int size = 0;
+            for (int v = triangles[Delaunator.nextHalfedge(hullEdgeOf[base])]; ; v = triangles[Delaunator.nextHalfedge(hullEdgeOf[v])]) {
+                size++;
+                if (v == base) {
+                    break;
+                }
+            }
+            hull = new int[size];
+            edges = new int[size];
+            int v = base;
+            for (int i = 0; i < size; i++) {
+                v = triangles[Delaunator.nextHalfedge(hullEdgeOf[v])];
+                hull[i] = v;
+                edges[i] = hullEdgeOf[v];
+            }
+        }
+        return new ConcaveHullIndexed(coords, triangles, halfedges, hull, edges, geom.getFactory());
+    }
+
+    private static int vertexIndex(Vertex v, Map<Coordinate, Integer> index, List<Coordinate> coordList) {
+        Coordinate c = v.getCoordinate();
+        Integer i = index.get(c);
+        if (i == null) {
+            i = coordList.size();
+            index.put(c, i);
+            coordList.add(c);
+        }
+        return i;
+    }
+
+    /**
+     * find the half-edge of each hull edge hull[i] -> hull[i + 1] by one scan over the triangles, -1 if missing
+     */
+    private static int[] hullEdges(int vertexCount, int[] triangles, int[] hull) {
+        int[] hullNext = new int[vertexCount];
+        int[] hullPos = new int[vertexCount];
+        Arrays.fill(hullNext, -1);
+        for (int i = 0; i < hull.length; i++) {
+            hullNext[hull[i]] = hull[(i + 1) % hull.length];
+            hullPos[hull[i]] = i;
+        }
+        int[] edges = new int[hull.length];
+        Arrays.fill(edges, -1);
+        for (int h = 0; h < triangles.length; h++) {
+            int s = triangles[h];
+            if (hullNext[s] >= 0 && triangles[Delaunator.nextHalfedge(h)] == hullNext[s]) {
+                edges[hullPos[s]] = h;
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * breadth first digging, supports multi parts
+     *
+     * @param triChecker      triangle checker to be used
+     * @param allowMultiParts if multiple parts are to be generated
+     * @param keepLineSeg     if degenerated line segments should be kept
+     * @param timeOut         time out in seconds, 5 if null
+     * @return a collection of geometry that form the concave hull of the input data (may contains linestring as degenerated segments), null on time out
+     */
+    public Collection<Geometry> getConcaveHullBFS(TriangleChecker triChecker, boolean allowMultiParts, boolean keepLineSeg, Integer timeOut) {
+        CancellationToken token = CancellationToken.timeout((null == timeOut ? 5 : timeOut) + 1, TimeUnit.SECONDS);
+        return getConcaveHullBFS(triChecker, allowMultiParts, keepLineSeg, token, false);
+    }
+
+    /**
+     * breadth first digging, supports multi parts, stops early when the token expires
+     * <p>
+     * On expiry the hulls are returned as far as they have been dug: finished ones, the one being dug and the pending parts,
+     * all of them valid polygons, only less concave than the complete result.
+     *
+     * @param triChecker      triangle checker to be used
+     * @param allowMultiParts if multiple parts are to be generated
+     * @param keepLineSeg     if degenerated line segments should be kept
+     * @param token           deadline and cancellation
+     * @return a collection of geometry that form the (possibly partial) concave hull of the input data, may contains linestring as degenerated segments
+     */
+    public Collection<Geometry> getConcaveHullBFS(TriangleChecker triChecker, boolean allowMultiParts, boolean keepLineSeg, CancellationToken token) {
+        return getConcaveHullBFS(triChecker, allowMultiParts, keepLineSeg, token, true);
+    }
+
+    private Collection<Geometry> getConcaveHullBFS(TriangleChecker triChecker, boolean allowMultiParts, boolean keepLineSeg, CancellationToken token, boolean partial) {
+        if (triChecker == null) {
+            return null;
+        }
+        if (initialHull.length < 3) { // less than 3 distinct points, or all collinear
+            return new ArrayList<Geometry>();
+        }
+        int anchor = initialRing(initialHull, initialEdges);
+        IntQueue hulls = new IntQueue(); // pairs of (anchor, size)
+        hulls.add(anchor);
+        hulls.add(initialHull.length);
+        IntQueue rltHulls = new IntQueue();
+        List<LineString> rltLS = new ArrayList<LineString>();
+        iterations = 0;
+        while (!hulls.isEmpty()) {
+            if (token.isExpired()) {
+                if (!partial) {
+                    return null;
+                }
+                break;
+            }
+            anchor = hulls.poll();
+            int size = hulls.poll();
+            int outcome = digHull(anchor, size, triChecker, allowMultiParts, keepLineSeg ? rltLS : null, token);
+            if (outcome == SPLIT) {
+                hulls.add(digAnchor);
+                hulls.add(countNodes(digAnchor));
+                hulls.add(splitAnchor);
+                hulls.add(countNodes(splitAnchor));
+            } else if (outcome != COLLAPSED) {
+                rltHulls.add(digAnchor);
+            }
+            if (outcome == EXPIRED) {
+                if (!partial) {
+                    return null;
+                }
+                break; // keep the hull as dug so far
+            }
+        }
+        while (!hulls.isEmpty()) { // pending parts when stopped early
+            rltHulls.add(hulls.poll());
+            hulls.poll();
+        }
+
+        List<Geometry> rtn = new ArrayList<Geometry>(rltHulls.size() + rltLS.size());
+        while (!rltHulls.isEmpty()) {
+            rtn.add(polygon(rltHulls.poll()));
+        }
+        rtn.addAll(rltLS);
+        return rtn;
+    }
+
+    /**
+     * breadth first digging with multi parts, the parts produced by a split are dug concurrently
+     * <p>
+     * Once split, the parts share no triangle and no boundary edge, so each one is handed over as its ring of vertices and half-edges
+     * and dug in a fork/join task with its own node pool, heap and vertex marks (taken from a queue of idle work arrays), numbered locally.
+     * The output is the same as {@link #getConcaveHullBFS(TriangleChecker, boolean, boolean, CancellationToken)} with allowMultiParts,
+     * in the same order (parts sorted by split depth, then by position in the split tree).
+     * Only fields cut into several parcels benefit, a single part is dug by one thread.
+     *
+     * @param triChecker  triangle checker to be used
+     * @param keepLineSeg if degenerated line segments should be kept
+     * @param token       deadline and cancellation
+     * @param pool        work-stealing pool, e.g. ForkJoinPool.commonPool()
+     * @return a collection of geometry that form the (possibly partial) concave hull of the input data, may contains linestring as degenerated segments
+     */
+    public Collection<Geometry> getConcaveHullBFS(TriangleChecker triChecker, boolean keepLineSeg, CancellationToken token, ForkJoinPool pool) {
+        if (triChecker == null) {
+            return null;
+        }
+        if (initialHull.length < 3) {
+            return new ArrayList<Geometry>();
+        }
+        ConcurrentLinkedQueue<ConcaveHullIndexed> workers = new ConcurrentLinkedQueue<ConcaveHullIndexed>(); // idle work arrays, this one first
+        workers.add(this);
+        ConcurrentLinkedQueue<Part> parts = new ConcurrentLinkedQueue<Part>();
+        pool.invoke(new PartTask(this, new Part(0, new long[1], initialHull, initialEdges), triChecker, keepLineSeg, token, workers, parts));
+
+        List<Part> sorted = new ArrayList<Part>(parts);
+        Collections.sort(sorted);
+        List<Geometry> rtn = new ArrayList<Geometry>(sorted.size());
+        for (Part part : sorted) {
+            if (part.polygon != null) {
+                rtn.add(part.polygon);
+            }
+        }
+        for (Part part : sorted) {
+            if (part.segments != null) {
+                rtn.addAll(part.segments);
+            }
+        }
+        return rtn;
+    }
+
+    /**
+     * reset the node pool and build a circular list from a ring, the last node is the anchor
+     *
+     * @return anchor node
+     */
+    private int initialRing(int[] ring, int[] edges) {
+        nodeCount = 0;
+        ensureNodes(ring.length * 2 + 16);
+        int first = -1, last = -1;
+        for (int i = 0; i < ring.length; i++) {
+            int node = newNode(ring[i]);
+            nodeEdge[node] = edges[i];
+            if (first < 0) {
+                first = node;
+            } else {
+                next[last] = node;
+                prev[node] = last;
+            }
+            last = node;
+        }
+        next[last] = first;
+        prev[first] = last;
+        return last;
+    }
+
+    /**
+     * dig one hull until no edge is removable or it splits
+     *
+     * @param rltLS collects trimmed line segments, null if not kept
+     * @return DONE or EXPIRED with the hull anchor in digAnchor, SPLIT with the anchors of both parts in digAnchor and splitAnchor, or COLLAPSED
+     */
+    private int digHull(int anchor, int size, TriangleChecker triChecker, boolean allowMultiParts, List<LineString> rltLS, CancellationToken token) {
+        // generate hull indices
+        stamp++;
+        heapSize = 0;
+        int node = anchor;
+        do {
+            vertStamp[nodeVert[node]] = stamp;
+            vertNode[nodeVert[node]] = node;
+            metric[node] = length(node);
+            heapPush(node);
+            node = next[node];
+        } while (node != anchor);
+        int outcome = DONE;
+        while (heapSize > 0) {
+            if ((++iterations & CHECK_MASK) == 0 && token.isExpired()) {
+                outcome = EXPIRED;
+                break;
+            }
+            int sn = heapPoll(); // the longest
+            int h = nodeEdge[sn];
+            if (h < 0) { // no triangle on the left, the edge is on the border of the triangulation
+                continue;
+            }
+            int en = next[sn];
+            int s = nodeVert[sn];
+            int e = nodeVert[en];
+            int hn = Delaunator.nextHalfedge(h); // e -> o
+            int hp = Delaunator.prevHalfedge(h); // o -> s
+            int o = triangles[hp];
+            if (triChecker.removeable(coords[s], coords[e], coords[o])) {
+                if (size > 3) {
+                    if (vertStamp[o] == stamp) { // o is a boundary node, split takes place
+                        int on = vertNode[o];
+                        if (on == next[en]) { // trim en
+                            heapRemove(en);
+                            vertStamp[e] = 0;
+                            unlink(en);
+                            nodeEdge[sn] = halfedges[hp];
+                            if (en == anchor) {
+                                anchor = sn;
+                            }
+                            size--;
+                            metric[sn] = length(sn);
+                            heapPush(sn);
+                            if (rltLS != null) {
+                                rltLS.add(gf.createLineString(new Coordinate[]{coords[e], coords[o]}));
+                            }
+                        } else if (on == prev[sn]) { // trim sn
+                            heapRemove(on);
+                            vertStamp[s] = 0;
+                            unlink(sn);
+                            nodeEdge[on] = halfedges[hn];
+                            if (sn == anchor) {
+                                anchor = on;
+                            }
+                            size--;
+                            metric[on] = length(on);
+                            heapPush(on);
+                            if (rltLS != null) {
+                                rltLS.add(gf.createLineString(new Coordinate[]{coords[o], coords[s]}));
+                            }
+                        } else if (allowMultiParts) { // split
+                            // remove sn-en, connect sn-on and a copy of on to en
+                            ensureNodes(nodeCount + 1);
+                            int on2 = newNode(o);
+                            nodeEdge[sn] = halfedges[hp];
+                            nodeEdge[on2] = halfedges[hn];
+                            next[sn] = on;
+                            prev[on2] = prev[on];
+                            next[prev[on]] = on2;
+                            next[on2] = en;
+                            prev[en] = on2;
+                            prev[on] = sn;
+                            anchor = sn;
+                            splitAnchor = en;
+                            outcome = SPLIT;
+                            break;
+                        }
+                    } else { // normal digging
+                        ensureNodes(nodeCount + 1);
+                        int on = newNode(o);
+                        nodeEdge[sn] = halfedges[hp];
+                        nodeEdge[on] = halfedges[hn];
+                        vertStamp[o] = stamp;
+                        vertNode[o] = on;
+                        next[on] = en;
+                        prev[on] = sn;
+                        prev[en] = on;
+                        next[sn] = on;
+                        size++;
+                        metric[sn] = length(sn);
+                        heapPush(sn);
+                        metric[on] = length(on);
+                        heapPush(on);
+                    }
+                } else { // 3 vertices only, collapse to a line segment
+                    outcome = COLLAPSED;
+                    break;
+                }
+            }
+        }
+        for (int i = 0; i < heapSize; i++) {
+            heapPos[heap[i]] = -1;
+        }
+        heapSize = 0;
+        digAnchor = anchor;
+        return outcome;
+    }
+
+    /**
+     * closed ring of the hull anchored at the given node
+     */
+    private Geometry polygon(int anchor) {
+        Coordinate[] ring = new Coordinate[countNodes(anchor) + 1];
+        int cnt = 0;
+        int node = anchor;
+        do {
+            ring[cnt++] = coords[nodeVert[node]];
+            node = next[node];
+        } while (node != anchor);
+        ring[cnt] = new Coordinate(ring[0]);
+        return gf.createPolygon(ring);
+    }
+
+    /**
+     * a hull as handed over to a task, and what became of it
+     */
+    private static final class Part implements Comparable<Part> {
+        final int depth; // number of splits from the initial hull
+        final long[] path; // branch taken at each split, bit i for depth i, most significant first
+        final int[] ring; // vertices, the last one is the anchor
+        final int[] edges; // half-edge of each ring edge
+        Geometry polygon; // null if collapsed or split
+        List<LineString> segments; // trimmed segments, null if none or not kept
+
+        Part(int depth, long[] path, int[] ring, int[] edges) {
+            this.depth = depth;
+            this.path = path;
+            this.ring = ring;
+            this.edges = edges;
+        }
+
+        Part child(int branch, int[] ring, int[] edges) {
+            long[] childPath = Arrays.copyOf(path, (depth >>> 6) + 1);
+            if (branch != 0) {
+                childPath[depth >>> 6] |= Long.MIN_VALUE >>> (depth & 63);
+            }
+            return new Part(depth + 1, childPath, ring, edges);
+        }
+
+        /**
+         * order of processing in the breadth first queue: by depth, then left to right
+         */
+        @Override
+        public int compareTo(Part other) {
+            if (depth != other.depth) {
+                return depth < other.depth ? -1 : 1;
+            }
+            for (int i = 0; i < path.length; i++) {
+                int rlt = Long.compareUnsigned(path[i], other.path[i]);
+                if (rlt != 0) {
+                    return rlt;
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * digs one part with the worker's pool, forks both halves on a split
+     */
+    private static final class PartTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final ConcaveHullIndexed shared;
+        private final Part part;
+        private final TriangleChecker triChecker;
+        private final boolean keepLineSeg;
+        private final CancellationToken token;
+        private final Queue<ConcaveHullIndexed> workers;
+        private final Collection<Part> parts;
+
+        PartTask(ConcaveHullIndexed shared, Part part, TriangleChecker triChecker, boolean keepLineSeg, CancellationToken token,
+                 Queue<ConcaveHullIndexed> workers, Collection<Part> parts) {
+            this.shared = shared;
+            this.part = part;
+            this.triChecker = triChecker;
+            this.keepLineSeg = keepLineSeg;
+            this.token = token;
+            this.workers = workers;
+            this.parts = parts;
+        }
+
+        @Override
+        protected void compute() {
+            ConcaveHullIndexed worker = workers.poll();
+            if (worker == null) {
+                worker = new ConcaveHullIndexed(shared.coords, shared.triangles, shared.halfedges, shared.initialHull, shared.initialEdges, shared.gf);
+            }
+            int anchor = worker.initialRing(part.ring, part.edges);
+            if (token.isExpired()) { // pending part when stopped early
+                part.polygon = worker.polygon(anchor);
+                parts.add(part);
+                workers.add(worker);
+                return;
+            }
+            List<LineString> segments = keepLineSeg ? new ArrayList<LineString>() : null;
+            int outcome = worker.digHull(anchor, part.ring.length, triChecker, true, segments, token);
+            if (segments != null && !segments.isEmpty()) {
+                part.segments = segments;
+            }
+            if (outcome == DONE || outcome == EXPIRED) {
+                part.polygon = worker.polygon(worker.digAnchor);
+            }
+            parts.add(part);
+            PartTask first = null, second = null;
+            if (outcome == SPLIT) {
+                first = new PartTask(shared, worker.part(part, 0, worker.digAnchor), triChecker, keepLineSeg, token, workers, parts);
+                second = new PartTask(shared, worker.part(part, 1, worker.splitAnchor), triChecker, keepLineSeg, token, workers, parts);
+            }
+            workers.add(worker); // released before forking, the halves may reuse it
+            if (first != null) {
+                invokeAll(first, second);
+            }
+        }
+    }
+
+    /**
+     * copy the hull anchored at the given node out of the node pool, the anchor last
+     */
+    private Part part(Part parent, int branch, int anchor) {
+        int size = countNodes(anchor);
+        int[] ring = new int[size];
+        int[] edges = new int[size];
+        int node = next[anchor];
+        for (int i = 0; i < size; i++) {
+            ring[i] = nodeVert[node];
+            edges[i] = nodeEdge[node];
+            node = next[node];
+        }
+        return parent.child(branch, ring, edges);
+    }
+
+    private double length(int node) {
+        return coords[nodeVert[node]].distance(coords[nodeVert[next[node]]]);
+    }
+
+    private int countNodes(int anchor) {
+        int cnt = 1;
+        for (int node = next[anchor]; node != anchor; node = next[node]) {
+            cnt++;
+        }
+        return cnt;
+    }
+
+    private void unlink(int node) {
+        next[prev[node]] = next[node];
+        prev[next[node]] = prev[node];
+    }
+
+    private int newNode(int vertex) {
+        int node = nodeCount++;
+        nodeVert[node] = vertex;
+        prev[node] = next[node] = node;
+        heapPos[node] = -1;
+        return node;
+    }
+
+    private void ensureNodes(int capacity) {
+        if (capacity > nodeVert.length) {
+            int n = Math.max(capacity, nodeVert.length * 2);
+            nodeVert = Arrays.copyOf(nodeVert, n);
+            nodeEdge = Arrays.copyOf(nodeEdge, n);
+            prev = Arrays.copyOf(prev, n);
+            next = Arrays.copyOf(next, n);
+            metric = Arrays.copyOf(metric, n);
+            heapPos = Arrays.copyOf(heapPos, n);
+            heap = Arrays.copyOf(heap, n);
+        }
+    }
+
+    /**
+     * HullEdgeCir ordering
+     */
+    private int compare(int a, int b) {
+        if (metric[a] < metric[b]) {
+            return -1;
+        } else if (metric[a] > metric[b]) {
+            return 1;
+        }
+        int rlt = coords[nodeVert[a]].compareTo(coords[nodeVert[b]]);
+        if (rlt == 0) {
+            return coords[nodeVert[next[a]]].compareTo(coords[nodeVert[next[b]]]);
+        }
+        return rlt;
+    }
+
+    private void heapPush(int node) {
+        int i = heapSize++;
+        heap[i] = node;
+        heapPos[node] = i;
+        siftUp(i);
+    }
+
+    private int heapPoll() {
+        int top = heap[0];
+        heapRemoveAt(0);
+        return top;
+    }
+
+    private void heapRemove(int node) {
+        if (heapPos[node] >= 0) {
+            heapRemoveAt(heapPos[node]);
+        }
+    }
+
+    private void heapRemoveAt(int i) {
+        int node = heap[i];
+        heapPos[node] = -1;
+        int lastNode = heap[--heapSize];
+        if (i < heapSize) {
+            heap[i] = lastNode;
+            heapPos[lastNode] = i;
+            siftDown(i);
+            siftUp(heapPos[lastNode]);
+        }
+    }
+
+    private void siftUp(int i) {
+        int node = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (compare(node, heap[parent]) <= 0) {
+                break;
+            }
+            heap[i] = heap[parent];
+            heapPos[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = node;
+        heapPos[node] = i;
+    }
+
+    private void siftDown(int i) {
+        int node = heap[i];
+        int half = heapSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < heapSize && compare(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (compare(node, heap[child]) >= 0) {
+                break;
+            }
+            heap[i] = heap[child];
+            heapPos[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = node;
+        heapPos[node] = i;
+    }
+
+    /**
+     * growable FIFO of ints
+     */
+    private static class IntQueue {
+        private int[] values = new int[16];
+        private int head = 0, tail = 0;
+
+        void add(int v) {
+            if (tail == values.length) {
+                if (head > 0) {
+                    System.arraycopy(values, head, values, 0, tail - head);
+                    tail -= head;
+                    head = 0;
+                }
+                if (tail == values.length) {
+                    values = Arrays.copyOf(values, values.length * 2);
+                }
+            }
+            values[tail++] = v;
+        }
+
+        int poll() {
+            return values[head++];
+        }
+
+        boolean isEmpty() {
+            return head == tail;
+        }
+
+        int size() {
+            return tail - head;
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package sunyu.util.concaveHull;
+
+import java.util.Arrays;
+
+/**
+ * Delaunay triangulation by the sweep-hull algorithm, ported from mapbox/delaunator (ISC License)
+ * <p>
+ * Triangles are stored flat: triangle t has vertices triangles[3t], triangles[3t+1], triangles[3t+2] in CCW order,
+ * half-edge h goes from triangles[h] to triangles[next(h)] with its triangle on the left,
+ * and halfedges[h] is the opposite half-edge in the adjacent triangle, or -1 on the convex hull.
+ * <p>
+ * Points are shifted to the centre of their bounding box before triangulation to keep the predicates accurate.
+ * Duplicate points must be removed by the caller.
+ *
+ * @author 孙宇
+ * @see <a href="https://github.com/mapbox/delaunator">delaunator</a>
+ */
+final class Delaunator {
+    private static final double EPSILON = Math.pow(2, -52);
+
+    final int[] triangles;
+    final int[] halfedges;
+
+    private final double[] coords;
+    private final int[] edgeStack = new int[512];
+    private int[] tri;
+    private int[] half;
+    private int trianglesLen;
+    private final int[] hullPrev;
+    private final int[] hullNext;
+    private final int[] hullTri;
+    private final int[] hullHash;
+    private final int hashSize;
+    private int hullStart;
+    private double cx, cy;
+
+    /**
+     * @param xy points as [x0, y0, x1, y1, ...]
+     */
+    Delaunator(double[] xy) {
+        int n = xy.length >> 1;
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            double x = xy[2 * i], y = xy[2 * i + 1];
+            if (x < minX) minX = x;
+            if (y < minY) minY = y;
+            if (x > maxX) maxX = x;
+            if (y > maxY) maxY = y;
+        }
+        double ox = (minX + maxX) / 2, oy = (minY + maxY) / 2;
+        coords = new double[n * 2];
+        for (int i = 0; i < n; i++) {
+            coords[2 * i] = xy[2 * i] - ox;
+            coords[2 * i + 1] = xy[2 * i + 1] - oy;
+        }
+        int maxTriangles = Math.max(2 * n - 5, 0);
+        tri = new int[maxTriangles * 3];
+        half = new int[maxTriangles * 3];
+        hashSize = Math.max(1, (int) Math.ceil(Math.sqrt(n)));
+        hullPrev = new int[n];
+        hullNext = new int[n];
+        hullTri = new int[n];
+        hullHash = new int[hashSize];
+        triangulate(n, minX - ox, minY - oy, maxX - ox, maxY - oy);
+        // flip to CCW: (v0, v1, v2) -> (v0, v2, v1), slot k becomes slot 2 - k
+        triangles = new int[trianglesLen];
+        halfedges = new int[trianglesLen];
+        for (int t = 0; t < trianglesLen; t += 3) {
+            for (int k = 0; k < 3; k++) {
+                triangles[t + k] = tri[t + (k == 0 ? 0 : 3 - k)];
+                int h = half[t + k];
+                halfedges[t + 2 - k] = h < 0 ? -1 : h - h % 3 + 2 - h % 3;
+            }
+        }
+        tri = half = null;
+    }
+
+    static int nextHalfedge(int e) {
+        return e % 3 == 2 ? e - 2 : e + 1;
+    }
+
+    static int prevHalfedge(int e) {
+        return e % 3 == 0 ? e + 2 : e - 1;
+    }
+
+    private void triangulate(int n, double minX, double minY, double maxX, double maxY) {
+        if (n < 3) {
+            return;
+        }
+        int[] ids = new int[n];
+        double[] dists = new double[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i;
+        }
+        double ccx = (minX + maxX) / 2, ccy = (minY + maxY) / 2;
+        double minDist = Double.POSITIVE_INFINITY;
+        int i0 = 0, i1 = 0, i2 = 0;
+        // pick a seed point close to the center
+        for (int i = 0; i < n; i++) {
+            double d = dist(ccx, ccy, coords[2 * i], coords[2 * i + 1]);
+            if (d < minDist) {
+                i0 = i;
+                minDist = d;
+            }
+        }
+        double i0x = coords[2 * i0], i0y = coords[2 * i0 + 1];
+        minDist = Double.POSITIVE_INFINITY;
+        // find the point closest to the seed
+        for (int i = 0; i < n; i++) {
+            if (i == i0) continue;
+            double d = dist(i0x, i0y, coords[2 * i], coords[2 * i + 1]);
+            if (d < minDist && d > 0) {
+                i1 = i;
+                minDist = d;
+            }
+        }
+        double i1x = coords[2 * i1], i1y = coords[2 * i1 + 1];
+        double minRadius = Double.POSITIVE_INFINITY;
+        // find the third point which forms the smallest circumcircle with the first two
+        for (int i = 0; i < n; i++) {
+            if (i == i0 || i == i1) continue;
+            double r = circumradius(i0x, i0y, i1x, i1y, coords[2 * i], coords[2 * i + 1]);
+            if (r < minRadius) {
+                i2 = i;
+                minRadius = r;
+            }
+        }
+        if (minRadius == Double.POSITIVE_INFINITY) { // all points collinear, no triangles
+            return;
+        }
+        double i2x = coords[2 * i2], i2y = coords[2 * i2 + 1];
+        // swap the order of the seed points for counter-clockwise orientation
+        if (orient(i0x, i0y, i1x, i1y, i2x, i2y)) {
+            int i = i1;
+            double x = i1x, y = i1y;
+            i1 = i2;
+            i1x = i2x;
+            i1y = i2y;
+            i2 = i;
+            i2x = x;
+            i2y = y;
+        }
+        double[] center = circumcenter(i0x, i0y, i1x, i1y, i2x, i2y);
+        cx = center[0];
+        cy = center[1];
+        for (int i = 0; i < n; i++) {
+            dists[i] = dist(coords[2 * i], coords[2 * i + 1], cx, cy);
+        }
+        // sort the points by distance from the seed triangle circumcenter
+        quicksort(ids, dists, 0, n - 1);
+        // set up the seed triangle as the starting hull
+        hullStart = i0;
+        hullNext[i0] = hullPrev[i2] = i1;
+        hullNext[i1] = hullPrev[i0] = i2;
+        hullNext[i2] = hullPrev[i1] = i0;
+        hullTri[i0] = 0;
+        hullTri[i1] = 1;
+        hullTri[i2] = 2;
+        Arrays.fill(hullHash, -1);
+        hullHash[hashKey(i0x, i0y)] = i0;
+        hullHash[hashKey(i1x, i1y)] = i1;
+        hullHash[hashKey(i2x, i2y)] = i2;
+        trianglesLen = 0;
+        addTriangle(i0, i1, i2, -1, -1, -1);
+        double xp = 0, yp = 0;
+        for (int k = 0; k < n; k++) {
+            int i = ids[k];
+            double x = coords[2 * i], y = coords[2 * i + 1];
+            // skip near-duplicate points
+            if (k > 0 && Math.abs(x - xp) <= EPSILON && Math.abs(y - yp) <= EPSILON) continue;
+            xp = x;
+            yp = y;
+            // skip seed triangle points
+            if (i == i0 || i == i1 || i == i2) continue;
+            // find a visible edge on the convex hull using edge hash
+            int start = 0;
+            for (int j = 0, key = hashKey(x, y); j < hashSize; j++) {
+                start = hullHash[(key + j) % hashSize];
+                if (start != -1 && start != hullNext[start]) break;
+            }
+            start = hullPrev[start];
+            int e = start, q;
+            while (!orient(x, y, coords[2 * e], coords[2 * e + 1], coords[2 * (q = hullNext[e])], coords[2 * q + 1])) {
+                e = q;
+                if (e == start) {
+                    e = -1;
+                    break;
+                }
+            }
+            if (e == -1) continue; // likely a near-duplicate point; skip it
+            // add the first triangle from the point
+            int t = addTriangle(e, i, hullNext[e], -1, -1, hullTri[e]);
+            // recursively flip triangles from the point until they satisfy the Delaunay condition
+            hullTri[i] = legalize(t + 2);
+            hullTri[e] = t; // keep track of boundary triangles on the hull
+            // walk forward through the hull, adding more triangles and flipping recursively
+            int nn = hullNext[e];
+            while (orient(x, y, coords[2 * nn], coords[2 * nn + 1], coords[2 * (q = hullNext[nn])], coords[2 * q + 1])) {
+                t = addTriangle(nn, i, q, hullTri[i], -1, hullTri[nn]);
+                hullTri[i] = legalize(t + 2);
+                hullNext[nn] = nn; // mark as removed
+                nn = q;
+            }
+            // walk backward from the other side, adding more triangles and flipping
+            if (e == start) {
+                while (orient(x, y, coords[2 * (q = hullPrev[e])], coords[2 * q + 1], coords[2 * e], coords[2 * e + 1])) {
+                    t = addTriangle(q, i, e, -1, hullTri[e], hullTri[q]);
+                    legalize(t + 2);
+                    hullTri[q] = t;
+                    hullNext[e] = e; // mark as removed
+                    e = q;
+                }
+            }
+            // update the hull indices
+            hullStart = hullPrev[i] = e;
+            hullNext[e] = hullPrev[nn] = i;
+            hullNext[i] = nn;
+            // save the two new edges in the hash table
+            hullHash[hashKey(x, y)] = i;
+            hullHash[hashKey(coords[2 * e], coords[2 * e + 1])] = e;
+        }
+    }
+
+    private int hashKey(double x, double y) {
+        return (int) Math.floor(pseudoAngle(x - cx, y - cy) * hashSize) % hashSize;
+    }
+
+    private int legalize(int a) {
+        int i = 0;
+        int ar;
+        // recursion eliminated with a fixed-size stack
+        while (true) {
+            int b = half[a];
+            int a0 = a - a % 3;
+            ar = a0 + (a + 2) % 3;
+            if (b == -1) { // convex hull edge
+                if (i == 0) break;
+                a = edgeStack[--i];
+                continue;
+            }
+            int b0 = b - b % 3;
+            int al = a0 + (a + 1) % 3;
+            int bl = b0 + (b + 2) % 3;
+            int p0 = tri[ar];
+            int pr = tri[a];
+            int pl = tri[al];
+            int p1 = tri[bl];
+            boolean illegal = inCircle(coords[2 * p0], coords[2 * p0 + 1], coords[2 * pr], coords[2 * pr + 1],
+                    coords[2 * pl], coords[2 * pl + 1], coords[2 * p1], coords[2 * p1 + 1]);
+            if (illegal) {
+                tri[a] = p1;
+                tri[b] = p0;
+                int hbl = half[bl];
+                // edge swapped on the other side of the hull (rare); fix the halfedge reference
+                if (hbl == -1) {
+                    int e = hullStart;
+                    do {
+                        if (hullTri[e] == bl) {
+                            hullTri[e] = a;
+                            break;
+                        }
+                        e = hullPrev[e];
+                    } while (e != hullStart);
+                }
+                link(a, hbl);
+                link(b, half[ar]);
+                link(ar, bl);
+                int br = b0 + (b + 1) % 3;
+                // don't worry about hitting the cap: it can only happen on extremely degenerate input
+                if (i < edgeStack.length) {
+                    edgeStack[i++] = br;
+                }
+            } else {
+                if (i == 0) break;
+                a = edgeStack[--i];
+            }
+        }
+        return ar;
+    }
+
+    private void link(int a, int b) {
+        half[a] = b;
+        if (b != -1) half[b] = a;
+    }
+
+    private int addTriangle(int i0, int i1, int i2, int a, int b, int c) {
+        int t = trianglesLen;
+        tri[t] = i0;
+        tri[t + 1] = i1;
+        tri[t + 2] = i2;
+        link(t, a);
+        link(t + 1, b);
+        link(t + 2, c);
+        trianglesLen += 3;
+        return t;
+    }
+
+    // monotonically increases with real angle, but doesn't need expensive trigonometry
+    private static double pseudoAngle(double dx, double dy) {
+        double p = dx / (Math.abs(dx) + Math.abs(dy));
+        return (dy > 0 ? 3 - p : 1 + p) / 4; // [0..1]
+    }
+
+    private static double dist(double ax, double ay, double bx, double by) {
+        double dx = ax - bx;
+        double dy = ay - by;
+        return dx * dx + dy * dy;
+    }
+
+    // true if p, q, r are counter-clockwise
+    private static boolean orient(double px, double py, double qx, double qy, double rx, double ry) {
+        return (qy - py) * (rx - qx) - (qx - px) * (ry - qy) < 0;
+    }
+
+    private static boolean inCircle(double ax, double ay, double bx, double by, double cx, double cy, double px, double py) {
+        double dx = ax - px;
+        double dy = ay - py;
+        double ex = bx - px;
+        double ey = by - py;
+        double fx = cx - px;
+        double fy = cy - py;
+        double ap = dx * dx + dy * dy;
+        double bp = ex * ex + ey * ey;
+        double cp = fx * fx + fy * fy;
+        return dx * (ey * cp - bp * fy) - dy * (ex * cp - bp * fx) + ap * (ex * fy - ey * fx) < 0;
+    }
+
+    private static double circumradius(double ax, double ay, double bx, double by, double cx, double cy) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double ex = cx - ax;
+        double ey = cy - ay;
+        double bl = dx * dx + dy * dy;
+        double cl = ex * ex + ey * ey;
+        double d = 0.5 / (dx * ey - dy * ex);
+        double x = (ey * bl - dy * cl) * d;
+        double y = (dx * cl - ex * bl) * d;
+        double r = x * x + y * y;
+        return Double.isNaN(r) ? Double.POSITIVE_INFINITY : r;
+    }
+
+    private static double[] circumcenter(double ax, double ay, double bx, double by, double cx, double cy) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double ex = cx - ax;
+        double ey = cy - ay;
+        double bl = dx * dx + dy * dy;
+        double cl = ex * ex + ey * ey;
+        double d = 0.5 / (dx * ey - dy * ex);
+        return new double[]{ax + (ey * bl - dy * cl) * d, ay + (dx * cl - ex * bl) * d};
+    }
+
+    private static void quicksort(int[] ids, double[] dists, int left, int right) {
+        while (right - left > 20) {
+            int median = (left + right) >> 1;
+            int i = left + 1;
+            int j = right;
+            swap(ids, median, i);
+            if (dists[ids[left]] > dists[ids[right]]) swap(ids, left, right);
+            if (dists[ids[i]] > dists[ids[right]]) swap(ids, i, right);
+            if (dists[ids[left]] > dists[ids[i]]) swap(ids, left, i);
+            int temp = ids[i];
+            double tempDist = dists[temp];
+            while (true) {
+                do i++; while (dists[ids[i]] < tempDist);
+                do j--; while (dists[ids[j]] > tempDist);
+                if (j < i) break;
+                swap(ids, i, j);
+            }
+            ids[left + 1] = ids[j];
+            ids[j] = temp;
+            // recurse into the smaller part, loop on the larger one
+            if (right - i + 1 >= j - left) {
+                quicksort(ids, dists, left, j - 1);
+                left = i;
+            } else {
+                quicksort(ids, dists, i, right);
+                right = j - 1;
+            }
+        }
+        for (int i = left + 1; i <= right; i++) {
+            int temp = ids[i];
+            double tempDist = dists[temp];
+            int j = i - 1;
+            while (j >= left && dists[ids[j]] > tempDist) {
+                ids[j + 1] = ids[j--];
+            }
+            ids[j + 1] = temp;
+        }
+    }
+
+    private static void swap(int[] arr, int i, int j) {
+        int tmp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = tmp;
+    }
+}
@@ -0,0 +1,206 @@
+package sunyu.util.concaveHull;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+
+import java.util.Arrays;
+
+/**
+ * Grid based thinning of a point set before triangulation
+ * <p>
+ * Points are snapped to a square grid whose cell is a fraction of the alpha radius. Each occupied cell is represented by its extreme points
+ * (min x, max x, min y, max y, at most 4 original points), which keeps the outline much better than a single point per cell.
+ * {@link Mode#CELL} keeps the representatives of all cells,
+ * {@link Mode#BOUNDARY} only those of the cells closer than one alpha radius to an empty cell (outer border and border of holes):
+ * the band is as wide as the radius so the digging cannot break through it into the thinned interior.
+ * <p>
+ * With a cell of a quarter of the alpha radius the outline area of the fixtures changes by less than 1% (up to 5% on very small sets).
+ *
+ * @author 孙宇
+ */
+public final class GridDecimator {
+    /**
+     * what to keep of each occupied cell
+     */
+    public enum Mode {
+        /**
+         * no thinning
+         */
+        NONE,
+        /**
+         * representatives of every occupied cell
+         */
+        CELL,
+        /**
+         * representatives of the occupied cells within one alpha radius of the border of the occupancy grid
+         */
+        BOUNDARY
+    }
+
+    private GridDecimator() {
+    }
+
+    /**
+     * thin a point set for digging with an alpha checker
+     *
+     * @param geom       input geometry, all its coordinates are used
+     * @param triChecker alpha checker used for digging
+     * @param ratio      cell size / alpha radius
+     * @param mode       what to keep
+     * @return thinned point set, the input geometry itself if nothing is removed
+     */
+    public static Geometry decimate(Geometry geom, TriCheckerAlpha triChecker, double ratio, Mode mode) {
+        if (mode == Mode.NONE || !(ratio > 0) || geom.isEmpty()) {
+            return geom;
+        }
+        Coordinate[] coords = geom.getCoordinates();
+        Coordinate[] kept = decimate(coords, triChecker.getR() * ratio, (int) Math.ceil(1 / ratio), mode);
+        if (kept.length == coords.length) {
+            return geom;
+        }
+        return geom.getFactory().createMultiPointFromCoords(kept);
+    }
+
+    /**
+     * thin a coordinate array
+     *
+     * @param coords   input coordinates
+     * @param cellSize cell size, in the same unit as the coordinates
+     * @param band     {@link Mode#BOUNDARY} only: width of the kept border in cells
+     * @param mode     what to keep
+     * @return kept coordinates, in input order (the same objects)
+     */
+    public static Coordinate[] decimate(Coordinate[] coords, double cellSize, int band, Mode mode) {
+        if (mode == Mode.NONE || !(cellSize > 0) || coords.length == 0) {
+            return coords;
+        }
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        for (Coordinate c : coords) {
+            minX = Math.min(minX, c.x);
+            minY = Math.min(minY, c.y);
+        }
+        // extreme points of each cell: min x, max x, min y, max y
+        CellMap cells = new CellMap(coords.length);
+        for (int i = 0; i < coords.length; i++) {
+            int slot = cells.slot((int) ((coords[i].x - minX) / cellSize), (int) ((coords[i].y - minY) / cellSize));
+            int[] ext = cells.extremes;
+            int e = slot * 4;
+            if (cells.keys[slot] == CellMap.EMPTY) {
+                cells.add(slot, (int) ((coords[i].x - minX) / cellSize), (int) ((coords[i].y - minY) / cellSize));
+                ext[e] = ext[e + 1] = ext[e + 2] = ext[e + 3] = i;
+            } else {
+                Coordinate c = coords[i];
+                if (c.x < coords[ext[e]].x) ext[e] = i;
+                if (c.x > coords[ext[e + 1]].x) ext[e + 1] = i;
+                if (c.y < coords[ext[e + 2]].y) ext[e + 2] = i;
+                if (c.y > coords[ext[e + 3]].y) ext[e + 3] = i;
+            }
+        }
+        int[] depth = mode == Mode.BOUNDARY ? cells.depth(band) : null;
+        boolean[] keep = new boolean[coords.length];
+        int count = 0;
+        for (int slot = 0; slot < cells.keys.length; slot++) {
+            if (cells.keys[slot] == CellMap.EMPTY || (depth != null && depth[slot] > band)) {
+                continue;
+            }
+            for (int k = 0; k < 4; k++) {
+                int point = cells.extremes[slot * 4 + k];
+                if (!keep[point]) {
+                    keep[point] = true;
+                    count++;
+                }
+            }
+        }
+        Coordinate[] kept = new Coordinate[count];
+        for (int i = 0, k = 0; i < coords.length; i++) {
+            if (keep[i]) {
+                kept[k++] = coords[i];
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * open addressing map from a cell (two ints) to the extreme points of the cell
+     */
+    private static final class CellMap {
+        static final long EMPTY = Long.MIN_VALUE;
+        final long[] keys;
+        final int[] extremes; // 4 point indices per slot
+        private final int mask;
+        private final int[] occupied; // slots in insertion order
+        private int size = 0;
+
+        CellMap(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(4, expected) * 2 - 1) << 1;
+            keys = new long[capacity];
+            extremes = new int[capacity * 4];
+            occupied = new int[expected];
+            Arrays.fill(keys, EMPTY);
+            mask = capacity - 1;
+        }
+
+        private static long key(int x, int y) {
+            return ((long) x << 32) | (y & 0xFFFFFFFFL);
+        }
+
+        int slot(int x, int y) {
+            long key = key(x, y);
+            long h = key * 0x9E3779B97F4A7C15L;
+            int i = (int) (h ^ (h >>> 32)) & mask;
+            while (keys[i] != EMPTY && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        void add(int slot, int x, int y) {
+            keys[slot] = key(x, y);
+            occupied[size++] = slot;
+        }
+
+        boolean contains(int x, int y) {
+            return keys[slot(x, y)] != EMPTY;
+        }
+
+        /**
+         * 8-neighbour distance of every occupied cell to the nearest empty cell (1 on the border), capped at band + 1
+         */
+        int[] depth(int band) {
+            int[] depth = new int[keys.length];
+            int[] queue = new int[size];
+            int head = 0, tail = 0;
+            for (int n = 0; n < size; n++) {
+                int slot = occupied[n];
+                int x = (int) (keys[slot] >> 32), y = (int) keys[slot];
+                if (!contains(x - 1, y) || !contains(x + 1, y) || !contains(x, y - 1) || !contains(x, y + 1)
+                        || !contains(x - 1, y - 1) || !contains(x + 1, y - 1) || !contains(x - 1, y + 1) || !contains(x + 1, y + 1)) {
+                    depth[slot] = 1;
+                    queue[tail++] = slot;
+                }
+            }
+            while (head < tail) {
+                int slot = queue[head++];
+                if (depth[slot] > band) {
+                    continue;
+                }
+                int x = (int) (keys[slot] >> 32), y = (int) keys[slot];
+                for (int dx = -1; dx <= 1; dx++) {
+                    for (int dy = -1; dy <= 1; dy++) {
+                        int s = slot(x + dx, y + dy);
+                        if (keys[s] != EMPTY && depth[s] == 0) {
+                            depth[s] = depth[slot] + 1;
+                            queue[tail++] = s;
+                        }
+                    }
+                }
+            }
+            for (int n = 0; n < size; n++) {
+                if (depth[occupied[n]] == 0) {
+                    depth[occupied[n]] = band + 1;
+                }
+            }
+            return depth;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package sunyu.util.concaveHull;
+
+import org.locationtech.jts.algorithm.locate.IndexedPointInAreaLocator;
+import org.locationtech.jts.geom.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Concave hull of a growing point set, e.g. the GPS track of a machine still at work
+ * <p>
+ * Every digged triangle has an empty circumcircle larger than the alpha radius, and adding points only removes such circles,
+ * so a point lying well inside the current hull does not take part in any later digging.
+ * After each update the points deeper than a few radii inside the hull are retired: the next update triangulates and digs only the band of active points
+ * along the boundary plus the new batch, and its cost follows the length of the outline and the size of the batch instead of the total number of points.
+ * The retired interior stays enclosed by the active band, which the digging (starting from the convex hull) does not cross,
+ * so the outline is the same as the one computed from all points; on the fixtures streamed in batches it is identical at every step.
+ * <p>
+ * The depth test rasterizes the outline into a grid of half the retire depth, no buffer is computed.
+ * Not thread safe.
+ *
+ * @author 孙宇
+ */
+public class IncrementalConcaveHull {
+    private final TriCheckerAlpha triChecker;
+    private final boolean allowMultiParts;
+    private final GeometryFactory gf;
+    private final double cellSize; // half the retire depth
+    private List<Coordinate> active = new ArrayList<Coordinate>();
+    private long retired = 0;
+    private boolean dirty = false;
+    private Collection<Geometry> hulls = Collections.emptyList();
+
+    /**
+     * @param triChecker      alpha checker used for digging
+     * @param allowMultiParts if multiple parts are to be generated
+     * @param gf              geometry factory of the output
+     */
+    public IncrementalConcaveHull(TriCheckerAlpha triChecker, boolean allowMultiParts, GeometryFactory gf) {
+        this(triChecker, allowMultiParts, 2.0, gf);
+    }
+
+    /**
+     * @param triChecker      alpha checker used for digging
+     * @param allowMultiParts if multiple parts are to be generated
+     * @param retireRadii     points deeper than this many alpha radii inside the hull are retired, at least 2
+     * @param gf              geometry factory of the output
+     */
+    public IncrementalConcaveHull(TriCheckerAlpha triChecker, boolean allowMultiParts, double retireRadii, GeometryFactory gf) {
+        this.triChecker = triChecker;
+        this.allowMultiParts = allowMultiParts;
+        this.gf = gf;
+        this.cellSize = triChecker.getR() * Math.max(2.0, retireRadii) / 2;
+    }
+
+    /**
+     * add a batch of points, all coordinates of the geometry are used
+     *
+     * @param batch new points
+     */
+    public void add(Geometry batch) {
+        add(batch.getCoordinates());
+    }
+
+    /**
+     * add a batch of points
+     *
+     * @param batch new points
+     */
+    public void add(Coordinate[] batch) {
+        if (batch.length > 0) {
+            Collections.addAll(active, batch);
+            dirty = true;
+        }
+    }
+
+    /**
+     * current concave hull, recomputed if points have been added since the last call
+     *
+     * @return polygons of the concave hull, empty if there are less than 3 distinct points
+     */
+    public Collection<Geometry> getConcaveHull() {
+        return getConcaveHull(CancellationToken.none());
+    }
+
+    /**
+     * current concave hull, recomputed if points have been added since the last call
+     * <p>
+     * If the token expires the partial hull is returned and nothing is retired, the next call digs again.
+     *
+     * @param token deadline and cancellation
+     * @return polygons of the concave hull, empty if there are less than 3 distinct points
+     */
+    public Collection<Geometry> getConcaveHull(CancellationToken token) {
+        if (!dirty) {
+            return hulls;
+        }
+        Geometry points = gf.createMultiPointFromCoords(active.toArray(new Coordinate[0]));
+        Collection<Geometry> result = ConcaveHullIndexed.delaunator(points).getConcaveHullBFS(triChecker, allowMultiParts, false, token);
+        hulls = Collections.unmodifiableCollection(result);
+        if (!token.isExpired()) {
+            dirty = false;
+            retire(result);
+        }
+        return hulls;
+    }
+
+    /**
+     * retire the active points farther than 2 cells from the outline and inside a polygon of the hull
+     */
+    private void retire(Collection<Geometry> result) {
+        List<IndexedPointInAreaLocator> locators = new ArrayList<IndexedPointInAreaLocator>();
+        CellMap outline = new CellMap();
+        Coordinate origin = active.get(0);
+        for (Geometry hull : result) {
+            if (hull instanceof Polygon) {
+                locators.add(new IndexedPointInAreaLocator(hull));
+                Polygon polygon = (Polygon) hull;
+                mark(polygon.getExteriorRing().getCoordinateSequence(), origin, outline);
+                for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+                    mark(polygon.getInteriorRingN(i).getCoordinateSequence(), origin, outline);
+                }
+            }
+        }
+        if (locators.isEmpty()) {
+            return;
+        }
+        List<Coordinate> kept = new ArrayList<Coordinate>(active.size());
+        for (Coordinate c : active) {
+            if (!deep(c, origin, outline, locators)) {
+                kept.add(c);
+            }
+        }
+        retired += active.size() - kept.size();
+        active = kept;
+    }
+
+    /**
+     * mark the cells of a ring, sampled every quarter cell
+     */
+    private void mark(CoordinateSequence ring, Coordinate origin, CellMap outline) {
+        for (int i = 1; i < ring.size(); i++) {
+            double x0 = ring.getX(i - 1), y0 = ring.getY(i - 1);
+            double dx = ring.getX(i) - x0, dy = ring.getY(i) - y0;
+            int steps = (int) Math.ceil(Math.hypot(dx, dy) / (cellSize / 4));
+            for (int k = 0; k <= steps; k++) {
+                double t = steps == 0 ? 0 : (double) k / steps;
+                outline.add(cell(x0 + dx * t, origin.x), cell(y0 + dy * t, origin.y));
+            }
+        }
+    }
+
+    /**
+     * no outline cell within 3 cells (the point is at least 2 cells = the retire depth away from the outline), and inside the hull
+     */
+    private boolean deep(Coordinate c, Coordinate origin, CellMap outline, List<IndexedPointInAreaLocator> locators) {
+        int x = cell(c.x, origin.x), y = cell(c.y, origin.y);
+        for (int dx = -3; dx <= 3; dx++) {
+            for (int dy = -3; dy <= 3; dy++) {
+                if (outline.contains(x + dx, y + dy)) {
+                    return false;
+                }
+            }
+        }
+        for (IndexedPointInAreaLocator locator : locators) {
+            if (locator.locate(c) == Location.INTERIOR) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int cell(double v, double origin) {
+        return (int) Math.floor((v - origin) / cellSize);
+    }
+
+    /**
+     * @return number of points still taking part in the computation
+     */
+    public int getActivePointCount() {
+        return active.size();
+    }
+
+    /**
+     * @return number of points retired in the interior
+     */
+    public long getRetiredPointCount() {
+        return retired;
+    }
+
+    /**
+     * growable open addressing set of cells (two ints)
+     */
+    private static final class CellMap {
+        private static final long EMPTY = Long.MIN_VALUE;
+        private long[] keys = new long[1024];
+        private int size = 0;
+
+        CellMap() {
+            Arrays.fill(keys, EMPTY);
+        }
+
+        private static long key(int x, int y) {
+            return ((long) x << 32) | (y & 0xFFFFFFFFL);
+        }
+
+        private int slot(long key) {
+            int mask = keys.length - 1;
+            long h = key * 0x9E3779B97F4A7C15L;
+            int i = (int) (h ^ (h >>> 32)) & mask;
+            while (keys[i] != EMPTY && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        void add(int x, int y) {
+            long key = key(x, y);
+            int i = slot(key);
+            if (keys[i] == EMPTY) {
+                keys[i] = key;
+                if (++size * 2 > keys.length) {
+                    rehash();
+                }
+            }
+        }
+
+        boolean contains(int x, int y) {
+            return keys[slot(key(x, y))] != EMPTY;
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            keys = new long[oldKeys.length * 2];
+            Arrays.fill(keys, EMPTY);
+            for (long key : oldKeys) {
+                if (key != EMPTY) {
+                    keys[slot(key)] = key;
+                }
+            }
+        }
+    }
+}
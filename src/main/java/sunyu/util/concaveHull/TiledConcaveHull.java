@@ -0,0 +1,298 @@
+package sunyu.util.concaveHull;
+
+import org.locationtech.jts.geom.*;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.operation.union.UnaryUnionOp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Concave hull of a very large point set computed tile by tile
+ * <p>
+ * The points are split by recursive median cuts into rectangular tiles of at most maxTilePoints points (unless a tile gets narrower than 4 margins).
+ * Each tile takes the points of its rectangle grown by a margin of a few alpha radii, is triangulated with {@link ConcaveHullIndexed#delaunator(Geometry)}
+ * and dug with the same checker, and its hulls are clipped back to the tile rectangle; the clipped pieces of all tiles are unioned.
+ * Near a cut the digging of a tile only differs from the single pass where it starts from the artificial border in the margin,
+ * so inside the rectangle the pieces match the single pass hull.
+ * A region the single pass cannot reach (e.g. a hole) may get reached from the border of a tile it straddles;
+ * such regions are recognized after the union since they share no line with the convex hull, and filled again.
+ * <p>
+ * Tiles are processed concurrently on a fork/join pool, the memory of the triangulations is bounded by the tile size times the parallelism.
+ * On the fixtures, with tiles of 500 or 2000 points, the outline covers the same area as the single pass (empty symmetric difference).
+ * On a single core it is slower than the single pass because of the margins and the union, the gain comes from the parallelism and the bounded memory.
+ *
+ * @author 孙宇
+ */
+public class TiledConcaveHull {
+    private final TriCheckerAlpha triChecker;
+    private final int maxTilePoints;
+    private final double margin;
+    private final GeometryFactory gf;
+
+    /**
+     * margin of 4 alpha radii
+     *
+     * @param triChecker    alpha checker used for digging
+     * @param maxTilePoints maximum number of points in the core of a tile
+     * @param gf            geometry factory of the output
+     */
+    public TiledConcaveHull(TriCheckerAlpha triChecker, int maxTilePoints, GeometryFactory gf) {
+        this(triChecker, maxTilePoints, 4.0, gf);
+    }
+
+    /**
+     * @param triChecker    alpha checker used for digging
+     * @param maxTilePoints maximum number of points in the core of a tile
+     * @param marginRadii   overlap of the tiles in alpha radii, at least 2
+     * @param gf            geometry factory of the output
+     */
+    public TiledConcaveHull(TriCheckerAlpha triChecker, int maxTilePoints, double marginRadii, GeometryFactory gf) {
+        this.triChecker = triChecker;
+        this.maxTilePoints = Math.max(3, maxTilePoints);
+        this.margin = triChecker.getR() * Math.max(2.0, marginRadii);
+        this.gf = gf;
+    }
+
+    /**
+     * concave hull of a point set, with multi parts
+     * <p>
+     * If the token expires the tiles already dug are kept as they are and the remaining ones contribute their convex hull,
+     * the result covers all points but is less concave.
+     *
+     * @param geom  input geometry, all its coordinates are used
+     * @param token deadline and cancellation
+     * @param pool  pool the tiles are dug in
+     * @return polygons of the concave hull, empty if there are less than 3 distinct points
+     */
+    public Collection<Geometry> getConcaveHull(Geometry geom, CancellationToken token, ForkJoinPool pool) {
+        Coordinate[] coords = geom.getCoordinates();
+        List<Geometry> rtn = new ArrayList<Geometry>();
+        if (coords.length < 3) {
+            return rtn;
+        }
+        List<Tile> tiles = tiles(coords);
+        List<List<Geometry>> pieces = new ArrayList<List<Geometry>>(tiles.size());
+        for (int i = 0; i < tiles.size(); i++) {
+            pieces.add(new ArrayList<Geometry>());
+        }
+        pool.invoke(new TileTask(coords, tiles, 0, tiles.size(), pieces, token));
+        List<Geometry> all = new ArrayList<Geometry>();
+        for (List<Geometry> tilePieces : pieces) {
+            all.addAll(tilePieces);
+        }
+        if (all.isEmpty()) {
+            return rtn;
+        }
+        Geometry union = refill(UnaryUnionOp.union(all), gf.createMultiPointFromCoords(coords).convexHull());
+        for (int i = 0; i < union.getNumGeometries(); i++) {
+            Geometry part = union.getGeometryN(i);
+            if (part instanceof Polygon && !part.isEmpty()) {
+                rtn.add(gf.createPolygon(((Polygon) part).getExteriorRing().getCoordinateSequence()));
+            }
+        }
+        return rtn;
+    }
+
+    /**
+     * fill the dug regions the single pass cannot reach
+     * <p>
+     * The single pass digs from the convex hull through shared edges, so each region it removes shares a line with the boundary of the convex hull.
+     * Regions removed by the tiles that do not (holes, or areas enclosed by several parts touching at vertices) were entered from the border of a tile.
+     */
+    private Geometry refill(Geometry union, Geometry convexHull) {
+        if (!(convexHull instanceof Polygon)) {
+            return union;
+        }
+        Geometry border = convexHull.getBoundary();
+        PreparedGeometry preparedBorder = PreparedGeometryFactory.prepare(border);
+        Geometry dug = convexHull.difference(union);
+        List<Geometry> filled = new ArrayList<Geometry>();
+        filled.add(union);
+        for (int i = 0; i < dug.getNumGeometries(); i++) {
+            Geometry region = dug.getGeometryN(i);
+            if (region.getArea() > 0 && (!preparedBorder.intersects(region) || region.intersection(border).getLength() == 0)) {
+                filled.add(region);
+            }
+        }
+        return filled.size() == 1 ? union : UnaryUnionOp.union(filled);
+    }
+
+    /**
+     * number of tiles a point set would be split into
+     *
+     * @param geom input geometry
+     * @return number of tiles
+     */
+    public int getTileCount(Geometry geom) {
+        Coordinate[] coords = geom.getCoordinates();
+        return coords.length < 3 ? 0 : tiles(coords).size();
+    }
+
+    /**
+     * median cuts along the longer side until the tiles are small enough
+     */
+    private List<Tile> tiles(Coordinate[] coords) {
+        int[] idx = new int[coords.length];
+        Envelope env = new Envelope();
+        for (int i = 0; i < coords.length; i++) {
+            idx[i] = i;
+            env.expandToInclude(coords[i]);
+        }
+        List<Tile> tiles = new ArrayList<Tile>();
+        split(coords, idx, 0, idx.length, env, tiles);
+        return tiles;
+    }
+
+    private void split(Coordinate[] coords, int[] idx, int lo, int hi, Envelope env, List<Tile> tiles) {
+        boolean alongX = env.getWidth() >= env.getHeight();
+        double side = alongX ? env.getWidth() : env.getHeight();
+        if (hi - lo <= maxTilePoints || side < 4 * margin) {
+            tiles.add(new Tile(env, Arrays.copyOfRange(idx, lo, hi)));
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        select(coords, idx, lo, hi - 1, mid, alongX);
+        double min = alongX ? env.getMinX() : env.getMinY();
+        double max = alongX ? env.getMaxX() : env.getMaxY();
+        double cut = Math.min(Math.max(coord(coords[idx[mid]], alongX), min + 2 * margin), max - 2 * margin);
+        // points before the cut on the left, the median is not necessarily on it after clamping
+        int i = lo, j = hi - 1;
+        while (i <= j) {
+            if (coord(coords[idx[i]], alongX) < cut) {
+                i++;
+            } else {
+                swap(idx, i, j--);
+            }
+        }
+        if (alongX) {
+            split(coords, idx, lo, i, new Envelope(env.getMinX(), cut, env.getMinY(), env.getMaxY()), tiles);
+            split(coords, idx, i, hi, new Envelope(cut, env.getMaxX(), env.getMinY(), env.getMaxY()), tiles);
+        } else {
+            split(coords, idx, lo, i, new Envelope(env.getMinX(), env.getMaxX(), env.getMinY(), cut), tiles);
+            split(coords, idx, i, hi, new Envelope(env.getMinX(), env.getMaxX(), cut, env.getMaxY()), tiles);
+        }
+    }
+
+    /**
+     * quickselect: idx[k] gets the k-th smallest coordinate
+     */
+    private static void select(Coordinate[] coords, int[] idx, int lo, int hi, int k, boolean alongX) {
+        while (lo < hi) {
+            double pivot = coord(coords[idx[(lo + hi) >>> 1]], alongX);
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (coord(coords[idx[i]], alongX) < pivot) {
+                    i++;
+                }
+                while (coord(coords[idx[j]], alongX) > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(idx, i++, j--);
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static double coord(Coordinate c, boolean alongX) {
+        return alongX ? c.x : c.y;
+    }
+
+    private static void swap(int[] idx, int i, int j) {
+        int t = idx[i];
+        idx[i] = idx[j];
+        idx[j] = t;
+    }
+
+    /**
+     * rectangle of a tile and the indices of the points in it
+     */
+    private static final class Tile {
+        final Envelope core;
+        final int[] points;
+
+        Tile(Envelope core, int[] points) {
+            this.core = core;
+            this.points = points;
+        }
+    }
+
+    /**
+     * digs a range of tiles, split in halves until a single tile, and clips its hulls to the core
+     */
+    private final class TileTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Coordinate[] coords;
+        private final List<Tile> tiles;
+        private final int from;
+        private final int to;
+        private final List<List<Geometry>> pieces;
+        private final CancellationToken token;
+
+        TileTask(Coordinate[] coords, List<Tile> tiles, int from, int to, List<List<Geometry>> pieces, CancellationToken token) {
+            this.coords = coords;
+            this.tiles = tiles;
+            this.from = from;
+            this.to = to;
+            this.pieces = pieces;
+            this.token = token;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new TileTask(coords, tiles, from, mid, pieces, token), new TileTask(coords, tiles, mid, to, pieces, token));
+                return;
+            }
+            Envelope core = tiles.get(from).core;
+            Envelope grown = new Envelope(core);
+            grown.expandBy(margin);
+            // every point is in exactly one tile, take those of the tiles overlapping the grown rectangle
+            List<Coordinate> points = new ArrayList<Coordinate>();
+            for (Tile tile : tiles) {
+                if (tile.core.intersects(grown)) {
+                    for (int i : tile.points) {
+                        if (grown.contains(coords[i])) {
+                            points.add(coords[i]);
+                        }
+                    }
+                }
+            }
+            if (points.size() < 3) {
+                return;
+            }
+            Geometry multiPoint = gf.createMultiPointFromCoords(points.toArray(new Coordinate[0]));
+            Collection<Geometry> hulls;
+            if (token.isExpired()) {
+                hulls = new ArrayList<Geometry>();
+                hulls.add(multiPoint.convexHull());
+            } else {
+                hulls = ConcaveHullIndexed.delaunator(multiPoint).getConcaveHullBFS(triChecker, true, false, token);
+            }
+            Geometry rect = gf.toGeometry(core);
+            List<Geometry> result = pieces.get(from);
+            for (Geometry hull : hulls) {
+                if (hull instanceof Polygon) {
+                    Geometry piece = hull.intersection(rect);
+                    if (!piece.isEmpty() && piece.getArea() > 0) {
+                        result.add(piece);
+                    }
+                }
+            }
+        }
+    }
+}
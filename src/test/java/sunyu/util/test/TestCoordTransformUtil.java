@@ -1,10 +1,19 @@
 package sunyu.util.test;
 
+import cn.hutool.core.io.resource.ResourceUtil;
+import cn.hutool.core.lang.Assert;
 import cn.hutool.log.Log;
 import cn.hutool.log.LogFactory;
 import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
 import sunyu.util.CoordTransformUtil;
 
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
 public class TestCoordTransformUtil {
     Log log = LogFactory.get();
 
@@ -19,4 +28,144 @@ public class TestCoordTransformUtil {
         CoordTransformUtil coordTransformUtil = CoordTransformUtil.builder().build();
         log.debug("{}", coordTransformUtil.wgs2BD09(25.299342, 110.325536));
     }
+
+    @Test
+    void t003() throws ParseException {
+        CoordTransformUtil coordTransformUtil = CoordTransformUtil.builder().build();
+        Coordinate[] coordinates = new WKTReader().read(ResourceUtil.readUtf8Str("multipoint1.txt")).getCoordinates();
+        int n = coordinates.length + 1;
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        for (int i = 0; i < coordinates.length; i++) {
+            lat[i] = coordinates[i].y;
+            lon[i] = coordinates[i].x;
+        }
+        //国外的点
+        lat[n - 1] = 48.8566;
+        lon[n - 1] = 2.3522;
+        double[] outLat = new double[n];
+        double[] outLon = new double[n];
+
+        coordTransformUtil.wgs2GCJ(lat, lon, outLat, outLon, 0, n);
+        for (int i = 0; i < n; i++) {
+            Assert.isTrue(Arrays.equals(coordTransformUtil.wgs2GCJ(lat[i], lon[i]), new double[]{outLat[i], outLon[i]}));
+        }
+        coordTransformUtil.gcj2WGS(lat, lon, outLat, outLon, 0, n);
+        for (int i = 0; i < n; i++) {
+            Assert.isTrue(Arrays.equals(coordTransformUtil.gcj2WGS(lat[i], lon[i]), new double[]{outLat[i], outLon[i]}));
+        }
+        coordTransformUtil.gcj2BD09(lat, lon, outLat, outLon, 0, n);
+        for (int i = 0; i < n; i++) {
+            Assert.isTrue(Arrays.equals(coordTransformUtil.gcj2BD09(lat[i], lon[i]), new double[]{outLat[i], outLon[i]}));
+        }
+        coordTransformUtil.bd092GCJ(lat, lon, outLat, outLon, 0, n);
+        for (int i = 0; i < n; i++) {
+            Assert.isTrue(Arrays.equals(coordTransformUtil.bd092GCJ(lat[i], lon[i]), new double[]{outLat[i], outLon[i]}));
+        }
+        coordTransformUtil.wgs2BD09(lat, lon, outLat, outLon, 0, n);
+        for (int i = 0; i < n; i++) {
+            Assert.isTrue(Arrays.equals(coordTransformUtil.wgs2BD09(lat[i], lon[i]), new double[]{outLat[i], outLon[i]}));
+        }
+        coordTransformUtil.bd092WGS(lat, lon, outLat, outLon, 0, n);
+        for (int i = 0; i < n; i++) {
+            Assert.isTrue(Arrays.equals(coordTransformUtil.bd092WGS(lat[i], lon[i]), new double[]{outLat[i], outLon[i]}));
+        }
+        coordTransformUtil.gcj2WGSExactly(lat, lon, outLat, outLon, 0, n);
+        for (int i = 0; i < n; i++) {
+            Assert.isTrue(Arrays.equals(coordTransformUtil.gcj2WGSExactly(lat[i], lon[i]), new double[]{outLat[i], outLon[i]}));
+        }
+        //原地转换
+        double[] wgs = coordTransformUtil.wgs2GCJ(lat[0], lon[0]);
+        coordTransformUtil.wgs2GCJ(lat, lon, 0, n);
+        Assert.isTrue(lat[0] == wgs[0] && lon[0] == wgs[1]);
+    }
+
+    @Test
+    void t004() {
+        //牛顿迭代与二分法精度对比，覆盖国内经纬度网格
+        CoordTransformUtil coordTransformUtil = CoordTransformUtil.builder().build();
+        double maxDiff = 0;
+        double maxResidual = 0;
+        int count = 0;
+        int bisectionFailed = 0;
+        for (double lat = 1; lat < 55; lat += 0.37) {
+            for (double lon = 73; lon < 137; lon += 0.41) {
+                double[] newton = coordTransformUtil.gcj2WGSNewton(lat, lon);
+                double[] gcj = coordTransformUtil.wgs2GCJ(newton[0], newton[1]);
+                maxResidual = Math.max(maxResidual, Math.max(Math.abs(gcj[0] - lat), Math.abs(gcj[1] - lon)));
+                double[] bisection = coordTransformUtil.gcj2WGSExactly(lat, lon);
+                gcj = coordTransformUtil.wgs2GCJ(bisection[0], bisection[1]);
+                if (Math.abs(gcj[0] - lat) < 0.000000001 && Math.abs(gcj[1] - lon) < 0.000000001) {
+                    maxDiff = Math.max(maxDiff, Math.max(Math.abs(bisection[0] - newton[0]), Math.abs(bisection[1] - newton[1])));
+                } else {//二分法按经纬度分别二分，交叉偏导较大的位置会到迭代上限仍不收敛
+                    bisectionFailed++;
+                }
+                count++;
+            }
+        }
+        log.debug("{}个点 牛顿迭代反算最大残差：{}度 二分法未收敛{}个点 其余点两者最大差值：{}度", count, maxResidual, bisectionFailed, maxDiff);
+        Assert.isTrue(maxResidual < 0.000000001);
+        Assert.isTrue(maxDiff < 0.00000001);
+        //经度105度附近sqrt(|x|)不可导
+        double[] newton = coordTransformUtil.gcj2WGSNewton(35.0, 105.0);
+        double[] gcj = coordTransformUtil.wgs2GCJ(newton[0], newton[1]);
+        Assert.isTrue(Math.abs(gcj[0] - 35.0) < 0.000000001 && Math.abs(gcj[1] - 105.0) < 0.000000001);
+    }
+
+    @Test
+    void t005() throws ParseException {
+        //并行批量转换与单线程批量转换结果一致
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        CoordTransformUtil coordTransformUtil = CoordTransformUtil.builder().setForkJoinPool(forkJoinPool).setParallelThreshold(1000).build();
+        Coordinate[] coordinates = new WKTReader().read(ResourceUtil.readUtf8Str("multipoint8.txt")).getCoordinates();
+        int n = coordinates.length;
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        for (int i = 0; i < n; i++) {
+            lat[i] = coordinates[i].y;
+            lon[i] = coordinates[i].x;
+        }
+        double[] outLat = new double[n];
+        double[] outLon = new double[n];
+        double[] parallelLat = new double[n];
+        double[] parallelLon = new double[n];
+        coordTransformUtil.wgs2BD09(lat, lon, outLat, outLon, 0, n);
+        coordTransformUtil.wgs2BD09Parallel(lat, lon, parallelLat, parallelLon, 0, n);
+        Assert.isTrue(Arrays.equals(outLat, parallelLat) && Arrays.equals(outLon, parallelLon));
+        coordTransformUtil.gcj2WGSNewton(lat, lon, outLat, outLon, 0, n, 0.000000001);
+        coordTransformUtil.gcj2WGSNewtonParallel(lat, lon, parallelLat, parallelLon, 0, n, 0.000000001);
+        Assert.isTrue(Arrays.equals(outLat, parallelLat) && Arrays.equals(outLon, parallelLon));
+        forkJoinPool.shutdown();
+    }
+
+    @Test
+    void t006() {
+        //偏移量网格插值模式，只预计算测试数据所在区域
+        CoordTransformUtil exactly = CoordTransformUtil.builder().build();
+        CoordTransformUtil grid = CoordTransformUtil.builder().setDeltaGrid(0.01, 34, 101, 37, 105).build();
+        Random random = new Random(1);
+        int n = 100000;
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        double maxError = 0;
+        for (int i = 0; i < n; i++) {
+            //一部分点在网格范围外
+            lat[i] = 33 + random.nextDouble() * 5;
+            lon[i] = 100 + random.nextDouble() * 6;
+            double[] e = exactly.wgs2GCJ(lat[i], lon[i]);
+            double[] g = grid.wgs2GCJ(lat[i], lon[i]);
+            maxError = Math.max(maxError, Math.max(Math.abs(e[0] - g[0]), Math.abs(e[1] - g[1])));
+        }
+        log.debug("网格步长0.01度 插值最大误差：{}度", maxError);
+        Assert.isTrue(maxError < 0.000002);
+        //网格范围外与公式结果一致
+        Assert.isTrue(Arrays.equals(exactly.wgs2GCJ(30.0, 120.0), grid.wgs2GCJ(30.0, 120.0)));
+        //批量转换与逐点转换一致
+        double[] outLat = new double[n];
+        double[] outLon = new double[n];
+        grid.gcj2WGS(lat, lon, outLat, outLon, 0, n);
+        for (int i = 0; i < n; i++) {
+            Assert.isTrue(Arrays.equals(grid.gcj2WGS(lat[i], lon[i]), new double[]{outLat[i], outLon[i]}));
+        }
+    }
 }
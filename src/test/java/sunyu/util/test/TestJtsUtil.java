@@ -1,15 +1,51 @@
 package sunyu.util.test;
 
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.date.TimeInterval;
 import cn.hutool.core.io.resource.ResourceUtil;
 import cn.hutool.core.lang.Assert;
+import cn.hutool.core.thread.ThreadUtil;
 import cn.hutool.core.util.NumberUtil;
 import cn.hutool.log.Log;
 import cn.hutool.log.LogFactory;
 import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.MultiPoint;
 import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
 import org.locationtech.jts.io.ParseException;
 import sunyu.util.JtsUtil;
+import sunyu.util.PolygonFarmCacheStats;
+import sunyu.util.PolygonFarmResult;
+import sunyu.util.concaveHull.CancellationToken;
+import sunyu.util.concaveHull.ConcaveHullIndexed;
+import sunyu.util.concaveHull.ConcaveHullJTS;
+import sunyu.util.concaveHull.GridDecimator;
+import sunyu.util.concaveHull.IncrementalConcaveHull;
+import sunyu.util.concaveHull.TiledConcaveHull;
+import sunyu.util.concaveHull.TriCheckerAlpha;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class TestJtsUtil {
     Log log = LogFactory.get();
@@ -58,4 +94,651 @@ public class TestJtsUtil {
         Assert.isTrue(jtsUtil.inGeometry((Point) inPoint, polygon));
         log.debug("是否在多边形内：{}", jtsUtil.inGeometry((Point) inPoint, polygon));
     }
+
+    @Test
+    public void 测试点是否在电子围栏内() throws ParseException {
+        Geometry polygon = jtsUtil.getWktReader().read("POLYGON((116.312496 40.05944,116.314333 40.059426,116.314284 40.058046,116.312465 40.058129,116.313826 40.05876,116.312496 40.05944))");
+        jtsUtil.addFence("f1", polygon);
+        Assert.isFalse(jtsUtil.inGeometry(116.313484, 40.058736, "f1"));
+        Assert.isTrue(jtsUtil.inGeometry(116.31299, 40.058187, "f1"));
+        //边界上的点与inGeometry(Point, Geometry)一致，不算在内
+        Assert.isFalse(jtsUtil.inGeometry(116.312496, 40.05944, "f1"));
+        jtsUtil.removeFence("f1");
+        Assert.isTrue(jtsUtil.fenceSize() == 0);
+    }
+
+    @Test
+    public void 测试电子围栏与原始图形判断一致() throws ParseException {
+        //1024个顶点的圆形围栏，耗时对比见JtsUtilBenchmark
+        Geometry polygon = jtsUtil.getWktReader().read("POINT(116.302247 40.05797)").buffer(0.01, 256);
+        jtsUtil.addFence("circle", polygon);
+        int n = 20000;
+        GeometryFactory geometryFactory = polygon.getFactory();
+        int fenceCount = 0;
+        for (int i = 0; i < n; i++) {
+            double lon = 116.302247 - 0.012 + 0.024 * ((i * 7919) % n) / n;
+            double lat = 40.05797 - 0.012 + 0.024 * ((i * 104729) % n) / n;
+            boolean in = jtsUtil.inGeometry(lon, lat, "circle");
+            Assert.isTrue(in == jtsUtil.inGeometry(geometryFactory.createPoint(new Coordinate(lon, lat)), polygon));
+            if (in) {
+                fenceCount++;
+            }
+        }
+        Assert.isTrue(fenceCount > 0 && fenceCount < n);
+        jtsUtil.removeFence("circle");
+    }
+
+    @Test
+    public void 测试查找包含点的电子围栏() throws ParseException {
+        jtsUtil.addFence("a", jtsUtil.getWktReader().read("POLYGON((116.30 40.05,116.32 40.05,116.32 40.07,116.30 40.07,116.30 40.05))"));
+        jtsUtil.addFence("b", jtsUtil.getWktReader().read("POLYGON((116.31 40.06,116.33 40.06,116.33 40.08,116.31 40.08,116.31 40.06))"));
+        jtsUtil.addFence("c", jtsUtil.getWktReader().read("POLYGON((117.31 41.06,117.33 41.06,117.33 41.08,117.31 41.08,117.31 41.06))"));
+        List<String> fenceIds = jtsUtil.findContainingFences(116.315, 40.065);
+        Collections.sort(fenceIds);
+        Assert.isTrue(fenceIds.equals(Arrays.asList("a", "b")));
+        Assert.isTrue(jtsUtil.findContainingFences(116.305, 40.055).equals(Collections.singletonList("a")));
+        Assert.isTrue(jtsUtil.findContainingFences(116.0, 40.0).isEmpty());
+        //围栏变更后索引要重建
+        jtsUtil.removeFence("a");
+        Assert.isTrue(jtsUtil.findContainingFences(116.315, 40.065).equals(Collections.singletonList("b")));
+        jtsUtil.clearFence();
+        Assert.isTrue(jtsUtil.findContainingFences(116.315, 40.065).isEmpty());
+    }
+
+    @Test
+    public void 测试批量判断点是否在矩形和圆内() {
+        int n = 10000;
+        double[] lons = new double[n];
+        double[] lats = new double[n];
+        for (int i = 0; i < n; i++) {
+            lons[i] = 116.29 + 0.025 * ((i * 7919) % n) / n;
+            lats[i] = 40.045 + 0.02 * ((i * 104729) % n) / n;
+        }
+        boolean[] inRect = new boolean[n];
+        BitSet inRectBits = new BitSet(n);
+        boolean[] inCircle = new boolean[n];
+        BitSet inCircleBits = new BitSet(n);
+        double[] distances = new double[n];
+        int rectCount = jtsUtil.inRectangle(lons, lats, 0, n, 116.291323, 40.057832, 116.303828, 40.051536, inRect);
+        Assert.isTrue(rectCount == jtsUtil.inRectangle(lons, lats, 0, n, 116.291323, 40.057832, 116.303828, 40.051536, inRectBits));
+        int circleCount = jtsUtil.inCircle(lons, lats, 0, n, 116.302247, 40.05797, 427.25225281516754, inCircle);
+        Assert.isTrue(circleCount == jtsUtil.inCircle(lons, lats, 0, n, 116.302247, 40.05797, 427.25225281516754, inCircleBits));
+        jtsUtil.pointDistance(lons, lats, 0, n, 116.302247, 40.05797, distances);
+        for (int i = 0; i < n; i++) {
+            Assert.isTrue(inRect[i] == jtsUtil.inRectangle(lons[i], lats[i], 116.291323, 40.057832, 116.303828, 40.051536));
+            Assert.isTrue(inRectBits.get(i) == inRect[i]);
+            Assert.isTrue(inCircle[i] == jtsUtil.inCircle(lons[i], lats[i], 116.302247, 40.05797, 427.25225281516754));
+            Assert.isTrue(inCircleBits.get(i) == inCircle[i]);
+            Assert.isTrue(distances[i] == jtsUtil.pointDistance(lons[i], lats[i], 116.302247, 40.05797));
+        }
+        log.debug("矩形内点数：{} 圆内点数：{}", rectCount, circleCount);
+    }
+
+    @Test
+    public void 测试圆形围栏与原始算法一致() {
+        Random random = new Random(20240101);
+        double[] radiuses = {0, 0.00005, 1, 427.25225281516754, 5000, 300000, 8000000};
+        for (double radius : radiuses) {
+            JtsUtil.CircleFence circleFence = jtsUtil.circleFence(116.302247, 40.05797, radius);
+            for (int i = 0; i < 20000; i++) {
+                double scale = radius / 50000 + 0.00001;
+                double lon = 116.302247 + (random.nextDouble() - 0.5) * scale;
+                double lat = 40.05797 + (random.nextDouble() - 0.5) * scale;
+                Assert.isTrue(jtsUtil.inCircle(lon, lat, circleFence) == jtsUtil.inCircle(lon, lat, 116.302247, 40.05797, radius));
+            }
+        }
+        //半径恰好等于距离时在圆外
+        for (int i = 0; i < 20000; i++) {
+            double lon = 116.302247 + (random.nextDouble() - 0.5) * 0.02;
+            double lat = 40.05797 + (random.nextDouble() - 0.5) * 0.02;
+            double distance = jtsUtil.pointDistance(lon, lat, 116.302247, 40.05797);
+            Assert.isFalse(jtsUtil.inCircle(lon, lat, jtsUtil.circleFence(116.302247, 40.05797, distance)));
+            Assert.isTrue(jtsUtil.inCircle(lon, lat, jtsUtil.circleFence(116.302247, 40.05797, distance + 0.0001)));
+        }
+        //跨180度经线
+        JtsUtil.CircleFence circleFence = jtsUtil.circleFence(179.9999, 0, 1000);
+        Assert.isTrue(jtsUtil.inCircle(-179.9999, 0, circleFence) == jtsUtil.inCircle(-179.9999, 0, 179.9999, 0, 1000));
+    }
+
+    @Test
+    public void 测试google字符串流式转换() throws ParseException {
+        Polygon polygon = (Polygon) jtsUtil.getWktReader().read("POLYGON((116.312496 40.05944,116.314333 40.059426,116.314284 40.058046,116.312465 40.058129,116.313826 40.05876,116.312496 40.05944))");
+        StringBuilder sb = new StringBuilder();
+        Assert.isTrue(jtsUtil.wktToGoogleStr(polygon, 6, sb));
+        String googleStr = jtsUtil.wktToGoogleStr(polygon);
+        Assert.isTrue(googleStr.equals(sb.toString()));
+        //复用sb
+        sb.setLength(0);
+        Assert.isTrue(jtsUtil.googleStrToWkt(googleStr, sb));
+        Assert.isTrue(jtsUtil.googleStrToWkt(googleStr).equals(sb.toString()));
+        //小数位数
+        sb.setLength(0);
+        jtsUtil.wktToGoogleStr((Polygon) jtsUtil.getWktReader().read("POLYGON((-0.5 1.25,2 3.0001,4.123456789 -5,-0.5 1.25))"), 3, sb);
+        Assert.isTrue("[[1.25,-0.5],[3,2],[-5,4.123],[1.25,-0.5]]".equals(sb.toString()));
+        //点数不足
+        sb.setLength(0);
+        Assert.isFalse(jtsUtil.googleStrToWkt("[[1,2],[3,4],[5,6]]", sb));
+        Assert.isTrue(sb.length() == 0);
+        //容忍空白
+        Assert.isTrue(jtsUtil.googleStrToWkt("[[1, 2], [3, 4], [5, 6], [1, 2]]", sb));
+        Assert.isTrue("POLYGON ((2 1,4 3,6 5,2 1))".equals(sb.toString()));
+    }
+
+    @Test
+    public void 测试并行解析WKT() throws ParseException {
+        JtsUtil jtsUtil = JtsUtil.builder().build();
+        String polygonWkt = ResourceUtil.readUtf8Str("polygon.txt");
+        List<String> wktList = new ArrayList<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 20000; i++) {
+            wktList.add(i % 10 == 0 ? polygonWkt : "POINT(" + (116 + random.nextDouble()) + " " + (40 + random.nextDouble()) + ")");
+        }
+        List<Geometry> sequential = new ArrayList<>();
+        for (String wkt : wktList) {
+            sequential.add(jtsUtil.getWktReader().read(wkt));
+        }
+        List<Geometry> parallel = jtsUtil.parseWkt(wktList);
+        Assert.isTrue(parallel.size() == sequential.size());
+        for (int i = 0; i < parallel.size(); i++) {
+            Assert.isTrue(parallel.get(i).equalsExact(sequential.get(i)));
+        }
+        //错误时抛出下标最小的异常
+        List<String> bad = new ArrayList<>(wktList);
+        bad.set(100, "POINT(1)");
+        bad.set(200, "POLYGON(");
+        try {
+            jtsUtil.parseWkt(bad);
+            Assert.isTrue(false);
+        } catch (ParseException e) {
+            log.debug("解析失败：{}", e.getMessage());
+            Assert.isFalse(e.getMessage().contains("EOF"));
+        }
+        jtsUtil.close();
+    }
+
+    @Test
+    public void 测试WKB和TWKB读写() throws ParseException {
+        JtsUtil jtsUtil = JtsUtil.builder().build();
+        Geometry polygon = jtsUtil.parseWkt(ResourceUtil.readUtf8Str("polygon.txt"));
+        Geometry multiPoint = jtsUtil.parseWkt(ResourceUtil.readUtf8Str("multipoint1.txt"));
+        Geometry collection = jtsUtil.parseWkt("GEOMETRYCOLLECTION(POINT(4 6),LINESTRING(4 6,7 10),POLYGON EMPTY,MULTIPOLYGON(((1 1,5 1,5 5,1 5,1 1),(2 2,2 3,3 3,3 2,2 2)),((6 3,9 2,9 4,6 3))))");
+        for (Geometry geometry : Arrays.asList(polygon, multiPoint, collection)) {
+            //WKB无损
+            byte[] wkb = jtsUtil.toWkb(geometry);
+            Assert.isTrue(jtsUtil.parseWkb(wkb).equalsExact(geometry));
+            //TWKB按精度取整
+            byte[] twkb = jtsUtil.toTwkb(geometry, 7);
+            Geometry decoded = jtsUtil.parseTwkb(twkb);
+            Assert.isTrue(decoded.equalsExact(geometry, 0.0000001));
+            log.debug("{} WKT：{}字节 WKB：{}字节 TWKB：{}字节", geometry.getGeometryType(), geometry.toText().length(), wkb.length, twkb.length);
+        }
+        //multipoint1.txt是7位小数，TWKB精度为7时无损
+        Assert.isTrue(jtsUtil.parseTwkb(jtsUtil.toTwkb(multiPoint, 7)).equalsExact(multiPoint));
+        //多点中的空成员被丢弃，在集合中也不影响后续数据
+        Geometry withEmpty = jtsUtil.parseWkt("MULTIPOINT (EMPTY, (1 2), (3 4))");
+        Assert.isTrue(jtsUtil.parseTwkb(jtsUtil.toTwkb(withEmpty, 6)).equalsExact(jtsUtil.parseWkt("MULTIPOINT ((1 2), (3 4))")));
+        Geometry collectionWithEmpty = jtsUtil.parseWkt("GEOMETRYCOLLECTION (MULTIPOINT (EMPTY, (1 2)), POINT (5 6))");
+        Assert.isTrue(jtsUtil.parseTwkb(jtsUtil.toTwkb(collectionWithEmpty, 6)).equalsExact(jtsUtil.parseWkt("GEOMETRYCOLLECTION (MULTIPOINT ((1 2)), POINT (5 6))")));
+        //复用ByteBuffer连续写入多个图形
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+        int wkbLength = jtsUtil.toWkb(polygon, buffer);
+        int twkbLength = jtsUtil.toTwkb(collection, 6, buffer);
+        Assert.isTrue(wkbLength + twkbLength == buffer.position());
+        buffer.flip();
+        Assert.isTrue(jtsUtil.parseWkb(buffer).equalsExact(polygon));
+        Assert.isTrue(jtsUtil.parseTwkb(buffer).equalsExact(collection));
+        Assert.isFalse(buffer.hasRemaining());
+        //空间不足
+        try {
+            jtsUtil.toTwkb(polygon, 6, ByteBuffer.allocate(8));
+            Assert.isTrue(false);
+        } catch (BufferOverflowException e) {
+            log.debug("空间不足");
+        }
+        //数据不完整
+        byte[] twkb = jtsUtil.toTwkb(polygon, 6);
+        try {
+            jtsUtil.parseTwkb(Arrays.copyOf(twkb, twkb.length - 1));
+            Assert.isTrue(false);
+        } catch (ParseException e) {
+            log.debug("解析失败：{}", e.getMessage());
+        }
+        jtsUtil.close();
+    }
+
+    @Test
+    public void 测试面积计算不修改原图形() throws ParseException {
+        Geometry polygon = jtsUtil.parseWkt(ResourceUtil.readUtf8Str("polygon.txt"));
+        Geometry copy = polygon.copy();
+        double area = jtsUtil.geometryArea(polygon);
+        Assert.isTrue(polygon.equalsExact(copy));
+        //重复计算结果一致
+        Assert.isTrue(area == jtsUtil.geometryArea(polygon));
+        Assert.isTrue(Math.abs(area - 354562.931409863) < 0.000001);
+        //带洞多边形与多多边形
+        Geometry multiPolygon = jtsUtil.parseWkt("MULTIPOLYGON(((116.30 40.05,116.32 40.05,116.32 40.07,116.30 40.07,116.30 40.05),(116.305 40.055,116.305 40.06,116.31 40.06,116.31 40.055,116.305 40.055)),((117.30 41.05,117.31 41.05,117.31 41.06,117.30 41.05)))");
+        double total = 0;
+        for (int i = 0; i < multiPolygon.getNumGeometries(); i++) {
+            total += jtsUtil.geometryArea(multiPolygon.getGeometryN(i));
+        }
+        Assert.isTrue(total == jtsUtil.geometryArea(multiPolygon));
+        log.debug("多多边形面积：{} 平方米", total);
+    }
+
+    @Test
+    public void 测试并行计算面积() throws ParseException {
+        JtsUtil jtsUtil = JtsUtil.builder().setParallelThreshold(256).build();
+        //2000个带洞的多边形
+        GeometryFactory geometryFactory = new GeometryFactory();
+        Random random = new Random(2);
+        Polygon[] polygons = new Polygon[2000];
+        for (int i = 0; i < polygons.length; i++) {
+            double lon = 116 + random.nextDouble(), lat = 40 + random.nextDouble();
+            Geometry shell = geometryFactory.createPoint(new Coordinate(lon, lat)).buffer(0.001 + random.nextDouble() * 0.001, 4 + random.nextInt(64));
+            Geometry hole = geometryFactory.createPoint(new Coordinate(lon, lat)).buffer(0.0005, 8);
+            polygons[i] = (Polygon) shell.difference(hole);
+        }
+        Geometry multiPolygon = geometryFactory.createMultiPolygon(polygons);
+        Geometry collection = geometryFactory.createGeometryCollection(new Geometry[]{multiPolygon, polygons[0], geometryFactory.createPoint(new Coordinate(116, 40))});
+        double sequential = jtsUtil.geometryArea(multiPolygon);
+        double parallel = jtsUtil.geometryAreaParallel(multiPolygon);
+        log.debug("{}个顶点 面积：{}", multiPolygon.getNumPoints(), parallel);
+        Assert.isTrue(sequential == parallel);
+        Assert.isTrue(jtsUtil.geometryArea(collection) == jtsUtil.geometryAreaParallel(collection));
+        //顶点数不超过阈值时串行计算
+        Assert.isTrue(jtsUtil.geometryArea(polygons[0]) == jtsUtil.geometryAreaParallel(polygons[0]));
+        //异常与串行一致
+        Polygon invalid = geometryFactory.createPolygon(polygons[0].getInteriorRingN(0), new LinearRing[]{polygons[0].getExteriorRing()});
+        try {
+            jtsUtil.geometryAreaParallel(geometryFactory.createMultiPolygon(new Polygon[]{polygons[1], invalid, polygons[2], polygons[3]}));
+            Assert.isTrue(false);
+        } catch (ParseException e) {
+            log.debug("面积计算异常");
+        }
+        jtsUtil.close();
+    }
+
+    @Test
+    public void 测试批量计算面积() throws Exception {
+        JtsUtil jtsUtil = JtsUtil.builder().setBatchConcurrency(8).build();
+        String wkt = ResourceUtil.readUtf8Str("polygon.txt");
+        byte[] wkb = jtsUtil.toWkb(jtsUtil.parseWkt(wkt));
+        double expected = jtsUtil.geometryArea(jtsUtil.parseWkt(wkt));
+        int total = 20000;
+        AtomicLong produced = new AtomicLong();
+        AtomicLong completed = new AtomicLong();
+        AtomicLong maxPending = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        //惰性生成输入，每100条有一条错误数据
+        Iterator<Map.Entry<Integer, Object>> inputs = new Iterator<Map.Entry<Integer, Object>>() {
+            @Override
+            public boolean hasNext() {
+                return produced.get() < total;
+            }
+
+            @Override
+            public Map.Entry<Integer, Object> next() {
+                int id = (int) produced.getAndIncrement();
+                maxPending.accumulateAndGet(id - completed.get(), Math::max);
+                Object value = id % 100 == 99 ? "POLYGON((1 1" : (id % 2 == 0 ? wkt : wkb);
+                return new AbstractMap.SimpleEntry<>(id, value);
+            }
+        };
+        long count = jtsUtil.geometryArea(inputs, (id, area, error) -> {
+            if (error != null) {
+                Assert.isTrue(id % 100 == 99 && Double.isNaN(area));
+                errors.incrementAndGet();
+            } else {
+                Assert.isTrue(area == expected);
+            }
+            completed.incrementAndGet();
+        });
+        log.debug("处理记录数：{} 错误数：{} 最大未完成数：{}", count, errors.get(), maxPending.get());
+        Assert.isTrue(count == total && completed.get() == total);
+        Assert.isTrue(errors.get() == total / 100);
+        Assert.isTrue(maxPending.get() <= 8);
+        //读取输入中途出错，抛出前已提交的记录全部回调完成
+        int failAt = 1000;
+        AtomicLong submitted = new AtomicLong();
+        AtomicLong callbacks = new AtomicLong();
+        Iterator<Map.Entry<Integer, Object>> failing = new Iterator<Map.Entry<Integer, Object>>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Map.Entry<Integer, Object> next() {
+                if (submitted.get() == failAt) {
+                    throw new IllegalStateException("读取失败");
+                }
+                return new AbstractMap.SimpleEntry<>((int) submitted.getAndIncrement(), wkt);
+            }
+        };
+        try {
+            jtsUtil.geometryArea(failing, (id, area, error) -> {
+                ThreadUtil.sleep(1);
+                callbacks.incrementAndGet();
+            });
+            Assert.isTrue(false);
+        } catch (IllegalStateException e) {
+            Assert.isTrue(submitted.get() == failAt && callbacks.get() == failAt);
+        }
+        jtsUtil.close();
+    }
+
+    @Test
+    public void 测试索引凹壳与原始凹壳一致() throws ParseException {
+        String[] fixtures = {"multipoint1.txt", "multipoint2.txt", "multipoint3.txt", "multipoint4.txt", "multipoint6.txt", "multipoint7.txt", "multipoint8.txt", "multipoint9.txt"};
+        for (String fixture : fixtures) {
+            Geometry multiPoint = jtsUtil.parseWkt(ResourceUtil.readUtf8Str(fixture));
+            ConcaveHullJTS concaveHull = new ConcaveHullJTS(multiPoint);
+            ConcaveHullIndexed concaveHullIndexed = new ConcaveHullIndexed(concaveHull);
+            for (double radius : new double[]{0.0001, 0.00001}) {
+                for (boolean allowMultiParts : new boolean[]{true, false}) {
+                    TriCheckerAlpha checkerAlpha = new TriCheckerAlpha(radius);
+                    List<Geometry> expected = new ArrayList<>(concaveHull.getConcaveHullBFS(checkerAlpha, allowMultiParts, true, 60));
+                    List<Geometry> actual = new ArrayList<>(concaveHullIndexed.getConcaveHullBFS(checkerAlpha, allowMultiParts, true, 60));
+                    log.debug("{} 半径：{} 多部分：{} 结果数：{}", fixture, radius, allowMultiParts, actual.size());
+                    Assert.isTrue(expected.size() == actual.size());
+                    for (int i = 0; i < expected.size(); i++) {
+                        Assert.isTrue(expected.get(i).equalsExact(actual.get(i)), "{} 第{}个结果不一致", fixture, i);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void 测试扫描线三角剖分凹壳() throws ParseException {
+        String[] fixtures = {"multipoint1.txt", "multipoint2.txt", "multipoint3.txt", "multipoint4.txt", "multipoint6.txt", "multipoint7.txt", "multipoint8.txt", "multipoint9.txt"};
+        for (String fixture : fixtures) {
+            Geometry multiPoint = jtsUtil.parseWkt(ResourceUtil.readUtf8Str(fixture));
+            ConcaveHullIndexed jts = new ConcaveHullIndexed(multiPoint);
+            ConcaveHullIndexed sweepHull = ConcaveHullIndexed.delaunator(multiPoint);
+            for (double radius : new double[]{0.0001, 0.00001}) {
+                TriCheckerAlpha checkerAlpha = new TriCheckerAlpha(radius);
+                double expected = 0;
+                for (Geometry hull : jts.getConcaveHullBFS(checkerAlpha, true, false, 60)) {
+                    expected += hull.getArea();
+                }
+                double actual = 0;
+                for (Geometry hull : sweepHull.getConcaveHullBFS(checkerAlpha, true, false, 60)) {
+                    Assert.isTrue(hull.isValid(), "{} 轮廓无效", fixture);
+                    actual += hull.getArea();
+                }
+                //共圆点处三角剖分不唯一，只比较面积
+                Assert.isTrue(Math.abs(actual - expected) <= expected * 0.01, "{} 面积差异过大 {} {}", fixture, expected, actual);
+            }
+        }
+        //规则网格，大量共圆点
+        Coordinate[] grid = new Coordinate[100 * 100];
+        for (int i = 0; i < grid.length; i++) {
+            grid[i] = new Coordinate(116 + (i % 100) * 0.000001, 40 + (i / 100) * 0.000001);
+        }
+        Collection<Geometry> hulls = ConcaveHullIndexed.delaunator(new GeometryFactory().createMultiPointFromCoords(grid)).getConcaveHullBFS(new TriCheckerAlpha(0.00001), true, false, 60);
+        Assert.isTrue(hulls.size() == 1 && hulls.iterator().next().isValid());
+        Assert.isTrue(Math.abs(hulls.iterator().next().getArea() - 0.000099 * 0.000099) < 1e-15);
+        //共线点没有三角形
+        Coordinate[] line = {new Coordinate(116, 40), new Coordinate(116.1, 40.1), new Coordinate(116.2, 40.2)};
+        Assert.isTrue(ConcaveHullIndexed.delaunator(new GeometryFactory().createMultiPointFromCoords(line)).getConcaveHullBFS(new TriCheckerAlpha(0.0001), true, false, 60).isEmpty());
+    }
+
+    @Test
+    public void 测试凹壳计算取消() throws ParseException {
+        MultiPoint multiPoint = (MultiPoint) jtsUtil.parseWkt(ResourceUtil.readUtf8Str("multipoint9.txt"));
+        ConcaveHullIndexed concaveHullIndexed = new ConcaveHullIndexed(multiPoint);
+        TriCheckerAlpha checkerAlpha = new TriCheckerAlpha(0.00001);
+        double complete = 0;
+        for (Geometry hull : concaveHullIndexed.getConcaveHullBFS(checkerAlpha, true, false, CancellationToken.none())) {
+            complete += hull.getArea();
+        }
+        //开始前已取消，返回初始凸包
+        CancellationToken cancelled = CancellationToken.none();
+        cancelled.cancel();
+        Collection<Geometry> hulls = concaveHullIndexed.getConcaveHullBFS(checkerAlpha, true, false, cancelled);
+        Assert.isTrue(hulls.size() == 1);
+        Assert.isTrue(Math.abs(hulls.iterator().next().getArea() - multiPoint.convexHull().getArea()) < 1e-12);
+        //很短的截止时间，返回部分挖掘的轮廓
+        TimeInterval timer = DateUtil.timer();
+        hulls = concaveHullIndexed.getConcaveHullBFS(checkerAlpha, true, false, CancellationToken.timeout(2, TimeUnit.MILLISECONDS));
+        long ms = timer.interval();
+        double partial = 0;
+        for (Geometry hull : hulls) {
+            Assert.isTrue(hull.isValid());
+            partial += hull.getArea();
+        }
+        log.debug("部分结果耗时：{}ms 结果数：{} 面积：{} 完整面积：{}", ms, hulls.size(), partial, complete);
+        Assert.isTrue(partial >= complete && ms < 1000);
+        //按秒超时的旧接口在超时后仍然返回null
+        Assert.isNull(concaveHullIndexed.getConcaveHullBFS(checkerAlpha, true, false, -1));
+        //JtsUtil可取消接口
+        Assert.notNull(jtsUtil.polygonFarm(multiPoint, 0.0, cancelled)[0]);
+        Assert.notNull(jtsUtil.polygon(multiPoint, 0.0, cancelled));
+    }
+
+    @Test
+    public void 测试异步计算轮廓() throws Exception {
+        MultiPoint multiPoint = (MultiPoint) jtsUtil.parseWkt(ResourceUtil.readUtf8Str("multipoint9.txt"));
+        String[] expected = jtsUtil.polygonFarm(multiPoint, 0.0, 60);
+        //单线程，队列长度2，队列满时拒绝
+        JtsUtil asyncUtil = JtsUtil.builder().setFarmThreads(1).setFarmQueueSize(2).build();
+        List<CompletableFuture<PolygonFarmResult>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(asyncUtil.polygonFarmAsync(multiPoint, 0.0, CancellationToken.timeout(60, TimeUnit.SECONDS)));
+        }
+        int completed = 0, rejected = 0;
+        for (CompletableFuture<PolygonFarmResult> future : futures) {
+            try {
+                PolygonFarmResult result = future.get();
+                log.debug("{}", result);
+                Assert.isTrue(Arrays.equals(expected, result.getResult()));
+                Assert.isTrue(result.getPointCount() == multiPoint.getNumGeometries() && result.getComputeNanos() > 0);
+                completed++;
+            } catch (ExecutionException e) {
+                Assert.isTrue(e.getCause() instanceof RejectedExecutionException);
+                rejected++;
+            }
+        }
+        log.debug("完成：{} 拒绝：{}", completed, rejected);
+        Assert.isTrue(completed >= 3 && rejected > 0 && completed + rejected == 10);
+        asyncUtil.close();
+        //关闭后提交被拒绝
+        CompletableFuture<PolygonFarmResult> future = asyncUtil.polygonFarmAsync(multiPoint, 0.0, null);
+        Assert.isTrue(future.isCompletedExceptionally());
+        //未异步计算过就关闭，之后提交也被拒绝，不会再创建线程池
+        JtsUtil closedUtil = JtsUtil.builder().build();
+        closedUtil.close();
+        try {
+            closedUtil.polygonFarmAsync(multiPoint, 0.0, null).get();
+            Assert.isTrue(false);
+        } catch (ExecutionException e) {
+            Assert.isTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+
+    @Test
+    public void 测试网格抽稀() throws ParseException {
+        String[] fixtures = {"multipoint1.txt", "multipoint2.txt", "multipoint4.txt", "multipoint6.txt", "multipoint7.txt", "multipoint8.txt", "multipoint9.txt"};
+        for (String fixture : fixtures) {
+            Geometry multiPoint = jtsUtil.parseWkt(ResourceUtil.readUtf8Str(fixture));
+            TriCheckerAlpha checkerAlpha = new TriCheckerAlpha(0.0001);
+            double expected = 0;
+            for (Geometry hull : new ConcaveHullIndexed(multiPoint).getConcaveHullBFS(checkerAlpha, true, false, 60)) {
+                expected += hull.getArea();
+            }
+            for (GridDecimator.Mode mode : new GridDecimator.Mode[]{GridDecimator.Mode.CELL, GridDecimator.Mode.BOUNDARY}) {
+                Geometry decimated = GridDecimator.decimate(multiPoint, checkerAlpha, 0.25, mode);
+                double actual = 0;
+                for (Geometry hull : new ConcaveHullIndexed(decimated).getConcaveHullBFS(checkerAlpha, true, false, 60)) {
+                    actual += hull.getArea();
+                }
+                log.debug("{} {} 点数：{} -> {} 面积变化：{}%", fixture, mode, multiPoint.getNumGeometries(), decimated.getNumGeometries(), (actual - expected) / expected * 100);
+                Assert.isTrue(decimated.getNumGeometries() < multiPoint.getNumGeometries());
+                Assert.isTrue(Math.abs(actual - expected) <= expected * 0.01, "{} {} 面积变化过大", fixture, mode);
+            }
+        }
+        //NONE不抽稀，返回原图形
+        Geometry multiPoint = jtsUtil.parseWkt(ResourceUtil.readUtf8Str("multipoint1.txt"));
+        Assert.isTrue(GridDecimator.decimate(multiPoint, new TriCheckerAlpha(0.0001), 0.25, GridDecimator.Mode.NONE) == multiPoint);
+        //JtsUtil抽稀选项
+        JtsUtil decimationUtil = JtsUtil.builder().setDecimation(GridDecimator.Mode.CELL).build();
+        Assert.notNull(decimationUtil.polygonFarm((MultiPoint) multiPoint, 0.0, 60)[0]);
+        decimationUtil.close();
+    }
+
+    @Test
+    public void 测试增量计算轮廓() throws ParseException {
+        Geometry multiPoint = jtsUtil.parseWkt(ResourceUtil.readUtf8Str("multipoint9.txt"));
+        Coordinate[] coordinates = multiPoint.getCoordinates();
+        TriCheckerAlpha checkerAlpha = new TriCheckerAlpha(0.00001);
+        IncrementalConcaveHull incremental = new IncrementalConcaveHull(checkerAlpha, true, multiPoint.getFactory());
+        int batch = 3000;
+        for (int i = 0; i < coordinates.length; i += batch) {
+            Coordinate[] received = Arrays.copyOfRange(coordinates, 0, Math.min(coordinates.length, i + batch));
+            incremental.add(Arrays.copyOfRange(coordinates, i, received.length));
+            List<Geometry> actual = new ArrayList<>(incremental.getConcaveHull());
+            List<Geometry> expected = new ArrayList<>(ConcaveHullIndexed.delaunator(multiPoint.getFactory().createMultiPointFromCoords(received)).getConcaveHullBFS(checkerAlpha, true, false, CancellationToken.none()));
+            log.debug("点数：{} 参与计算：{}", received.length, incremental.getActivePointCount());
+            Assert.isTrue(expected.size() == actual.size());
+            for (int j = 0; j < expected.size(); j++) {
+                Assert.isTrue(expected.get(j).equalsExact(actual.get(j)), "{}个点时第{}个结果不一致", received.length, j);
+            }
+        }
+        Assert.isTrue(incremental.getRetiredPointCount() > 0);
+        Assert.isTrue(incremental.getActivePointCount() + incremental.getRetiredPointCount() == coordinates.length);
+        //没有新的点时直接返回上次结果
+        Assert.isTrue(incremental.getConcaveHull() == incremental.getConcaveHull());
+        //JtsUtil增量接口
+        IncrementalConcaveHull farm = jtsUtil.incrementalPolygonFarm(0.0);
+        farm.add(multiPoint);
+        Assert.notNull(jtsUtil.polygonFarm(farm)[0]);
+    }
+
+    @Test
+    public void 测试并行挖掘多块轮廓() throws ParseException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        String[] fixtures = {"multipoint1.txt", "multipoint6.txt", "multipoint8.txt", "multipoint9.txt"};
+        for (String fixture : fixtures) {
+            Geometry multiPoint = jtsUtil.parseWkt(ResourceUtil.readUtf8Str(fixture));
+            ConcaveHullIndexed cah = ConcaveHullIndexed.delaunator(multiPoint);
+            TriCheckerAlpha checkerAlpha = new TriCheckerAlpha(0.00001);
+            List<Geometry> expected = new ArrayList<>(cah.getConcaveHullBFS(checkerAlpha, true, true, CancellationToken.none()));
+            List<Geometry> actual = new ArrayList<>(cah.getConcaveHullBFS(checkerAlpha, true, CancellationToken.none(), pool));
+            log.debug("{} 分块数：{}", fixture, expected.size());
+            //结果和顺序都与串行相同
+            Assert.isTrue(expected.size() == actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                Assert.isTrue(expected.get(i).equalsExact(actual.get(i)), "{} 第{}个结果不一致", fixture, i);
+            }
+        }
+        pool.shutdown();
+        //JtsUtil并行挖掘选项
+        JtsUtil parallelUtil = JtsUtil.builder().setParallelDigging(true).build();
+        MultiPoint multiPoint = (MultiPoint) jtsUtil.parseWkt(ResourceUtil.readUtf8Str("multipoint8.txt"));
+        Assert.equals(jtsUtil.polygonFarm(multiPoint, 0.0, (Integer) null)[0], parallelUtil.polygonFarm(multiPoint, 0.0, (Integer) null)[0]);
+        parallelUtil.close();
+    }
+
+    @Test
+    public void 测试分块计算轮廓() throws ParseException {
+        String[] fixtures = {"multipoint1.txt", "multipoint6.txt", "multipoint8.txt", "multipoint9.txt"};
+        for (String fixture : fixtures) {
+            Geometry multiPoint = jtsUtil.parseWkt(ResourceUtil.readUtf8Str(fixture));
+            TriCheckerAlpha checkerAlpha = new TriCheckerAlpha(0.00001);
+            Geometry expected = multiPoint.getFactory().buildGeometry(ConcaveHullIndexed.delaunator(multiPoint).getConcaveHullBFS(checkerAlpha, true, false, CancellationToken.none())).union();
+            TiledConcaveHull tiled = new TiledConcaveHull(checkerAlpha, 2000, multiPoint.getFactory());
+            Collection<Geometry> hulls = tiled.getConcaveHull(multiPoint, CancellationToken.none(), ForkJoinPool.commonPool());
+            Geometry actual = multiPoint.getFactory().buildGeometry(hulls).union();
+            double diff = expected.symDifference(actual).getArea() / expected.getArea();
+            log.debug("{} 分块数：{} 面积差异：{}", fixture, tiled.getTileCount(multiPoint), diff);
+            Assert.isTrue(tiled.getTileCount(multiPoint) > 1);
+            Assert.isTrue(actual.isValid());
+            Assert.isTrue(diff < 0.001, "{} 面积差异过大 {}", fixture, diff);
+        }
+        //JtsUtil分块选项
+        JtsUtil tiledUtil = JtsUtil.builder().setFarmTilePoints(5000).build();
+        MultiPoint multiPoint = (MultiPoint) jtsUtil.parseWkt(ResourceUtil.readUtf8Str("multipoint9.txt"));
+        String[] expected = jtsUtil.polygonFarm(multiPoint, 0.0, (Integer) null);
+        String[] actual = tiledUtil.polygonFarm(multiPoint, 0.0, (Integer) null);
+        double expectedArea = jtsUtil.parseWkt(expected[0]).getArea();
+        Assert.isTrue(Math.abs(jtsUtil.parseWkt(actual[0]).getArea() - expectedArea) <= expectedArea * 0.001);
+        tiledUtil.close();
+    }
+
+    @Test
+    public void 测试轮廓缓存() throws ParseException {
+        JtsUtil cacheUtil = JtsUtil.builder().setFarmCacheSize(2).build();
+        MultiPoint multiPoint = (MultiPoint) jtsUtil.parseWkt(ResourceUtil.readUtf8Str("multipoint9.txt"));
+        String[] first = cacheUtil.polygonFarm(multiPoint, 0.0, (Integer) null);
+        String[] second = cacheUtil.polygonFarm(multiPoint, 0.0, CancellationToken.none());
+        log.debug("{}", cacheUtil.getPolygonFarmCacheStats());
+        Assert.equals(first[0], second[0]);
+        Assert.equals(first[1], second[1]);
+        Assert.isTrue(cacheUtil.getPolygonFarmCacheStats().getHitCount() == 1);
+        Assert.isTrue(cacheUtil.getPolygonFarmCacheStats().getMissCount() == 1);
+        //返回的是副本
+        second[0] = null;
+        Assert.notNull(cacheUtil.polygonFarm(multiPoint, 0.0, (Integer) null)[0]);
+        //面积不同或点集不同时不命中，超过条数上限淘汰最久未访问的
+        cacheUtil.polygonFarm(multiPoint, 100000.0, (Integer) null);
+        MultiPoint other = (MultiPoint) jtsUtil.parseWkt(ResourceUtil.readUtf8Str("multipoint3.txt"));
+        cacheUtil.polygonFarm(other, 0.0, (Integer) null);
+        PolygonFarmCacheStats stats = cacheUtil.getPolygonFarmCacheStats();
+        Assert.isTrue(stats.getMissCount() == 3);
+        Assert.isTrue(stats.getEvictionCount() == 1);
+        Assert.isTrue(stats.getSize() == 2);
+        cacheUtil.clearPolygonFarmCache();
+        Assert.isTrue(cacheUtil.getPolygonFarmCacheStats().getSize() == 0);
+        Assert.isTrue(cacheUtil.getPolygonFarmCacheStats().getWeight() == 0);
+        cacheUtil.close();
+        //被取消的不完整结果不缓存
+        JtsUtil ttlUtil = JtsUtil.builder().setFarmCacheSize(10).setFarmCacheTtl(50, TimeUnit.MILLISECONDS).build();
+        CancellationToken token = CancellationToken.none();
+        token.cancel();
+        ttlUtil.polygonFarm(multiPoint, 0.0, token);
+        Assert.isTrue(ttlUtil.getPolygonFarmCacheStats().getSize() == 0);
+        //超过存活时间后重新计算
+        ttlUtil.polygonFarm(multiPoint, 0.0, (Integer) null);
+        ThreadUtil.sleep(100);
+        ttlUtil.polygonFarm(multiPoint, 0.0, (Integer) null);
+        Assert.isTrue(ttlUtil.getPolygonFarmCacheStats().getExpiredCount() == 1);
+        Assert.isTrue(ttlUtil.getPolygonFarmCacheStats().getHitCount() == 0);
+        ttlUtil.close();
+        //未开启缓存
+        Assert.isNull(jtsUtil.getPolygonFarmCacheStats());
+    }
+
+    @Test
+    public void 测试轮廓合并方式() throws ParseException {
+        //默认为BUFFER，OVERLAY_NG需要显式开启
+        JtsUtil overlayUtil = JtsUtil.builder().setFarmUnion(JtsUtil.FarmUnion.OVERLAY_NG).build();
+        List<MultiPoint> inputs = new ArrayList<>();
+        for (String name : Arrays.asList("multipoint1.txt", "multipoint3.txt", "multipoint6.txt", "multipoint9.txt")) {
+            inputs.add((MultiPoint) jtsUtil.parseWkt(ResourceUtil.readUtf8Str(name)));
+        }
+        //两块相距较远的地块，需要构造连通管道
+        Coordinate[] coords = inputs.get(1).getCoordinates();
+        Coordinate[] twoParts = new Coordinate[coords.length * 2];
+        for (int i = 0; i < coords.length; i++) {
+            twoParts[i] = coords[i];
+            twoParts[coords.length + i] = new Coordinate(coords[i].x + 0.05, coords[i].y);
+        }
+        inputs.add(new GeometryFactory().createMultiPointFromCoords(twoParts));
+        for (MultiPoint multiPoint : inputs) {
+            String[] buffer = jtsUtil.polygonFarm(multiPoint, 0.0, (Integer) null);
+            String[] overlay = overlayUtil.polygonFarm(multiPoint, 0.0, (Integer) null);
+            Geometry bufferGeometry = jtsUtil.parseWkt(buffer[0]);
+            Geometry overlayGeometry = jtsUtil.parseWkt(overlay[0]);
+            log.debug("点数：{} buffer(0)：{}个顶点 OverlayNG：{}个顶点", multiPoint.getNumPoints(), bufferGeometry.getNumPoints(), overlayGeometry.getNumPoints());
+            Assert.isTrue(overlayGeometry.isValid());
+            Assert.isTrue(bufferGeometry.symDifference(overlayGeometry).getArea() <= bufferGeometry.getArea() * 1e-9);
+            //图形相同，只是环的起点不同，字符串不保证一致
+            Assert.isTrue(bufferGeometry.equalsNorm(overlayGeometry));
+            Assert.isTrue((buffer[1] == null) == (overlay[1] == null));
+        }
+        Assert.isTrue(jtsUtil.parseWkt(overlayUtil.polygonFarm(inputs.get(4), 0.0, (Integer) null)[0]).getNumGeometries() == 2);
+        Assert.notNull(overlayUtil.polygonFarm(inputs.get(4), 0.0, (Integer) null)[1]);
+        overlayUtil.close();
+    }
 }